@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.dasein.cloud.digitalocean.models.Droplets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding a droplet listing through the hand-written {@link org.dasein.cloud.digitalocean.models.ModelAdapters}
+ * (as the endpoints do) with Gson's reflective binding of the same models, for the full droplet and for each
+ * {@link Projection}. The listing repeats the droplets of the {@code droplets.json} test fixture with new ids.
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DropletParsingBenchmark {
+    @Param({ "200", "5000" })
+    public int droplets;
+
+    private final Gson reflective = new Gson();
+    private String     listing;
+
+    @Setup
+    public void createListing() throws Exception {
+        Reader reader = new InputStreamReader(DropletParsingBenchmark.class.getResourceAsStream("/droplets.json"), "UTF-8");
+        JsonArray fixture;
+
+        try {
+            fixture = new JsonParser().parse(reader).getAsJsonObject().getAsJsonArray("droplets");
+        }
+        finally {
+            reader.close();
+        }
+        JsonArray items = new JsonArray();
+
+        for( int i = 0; i < droplets; i++ ) {
+            JsonElement droplet = new JsonParser().parse(fixture.get(i % fixture.size()).toString());
+            droplet.getAsJsonObject().addProperty("id", 4000000 + i);
+            droplet.getAsJsonObject().addProperty("name", "droplet-" + i);
+            items.add(droplet);
+        }
+        JsonObject meta = new JsonObject();
+        JsonObject root = new JsonObject();
+
+        meta.addProperty("total", droplets);
+        root.add("droplets", items);
+        root.add("meta", meta);
+        listing = root.toString();
+    }
+
+    @Benchmark
+    public Object reflective() {
+        return reflective.fromJson(listing, Droplets.class);
+    }
+
+    @Benchmark
+    public Object adapters() throws Exception {
+        return DigitalOcean.DROPLETS.fromJson(new JsonReader(new StringReader(listing)), Projection.FULL);
+    }
+
+    @Benchmark
+    public Object adaptersInstance() throws Exception {
+        return DigitalOcean.DROPLETS.fromJson(new JsonReader(new StringReader(listing)), Projection.INSTANCE);
+    }
+
+    @Benchmark
+    public Object adaptersStatus() throws Exception {
+        return DigitalOcean.DROPLETS.fromJson(new JsonReader(new StringReader(listing)), Projection.STATUS);
+    }
+}
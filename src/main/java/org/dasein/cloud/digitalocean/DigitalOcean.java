@@ -32,23 +32,41 @@ import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.conn.params.ConnRoutePNames;
 import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
 import org.apache.http.params.HttpProtocolParams;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
 import org.apache.log4j.Logger;
 import org.dasein.cloud.*;
 import org.dasein.cloud.digitalocean.compute.DOComputeServices;
+import org.dasein.cloud.digitalocean.compute.DropletInventory;
 import org.dasein.cloud.digitalocean.dc.DOLocation;
 import org.dasein.cloud.digitalocean.identity.IdentityServices;
+import org.dasein.cloud.digitalocean.models.rest.ActionTracker;
+import org.dasein.cloud.digitalocean.models.rest.ExponentialBackoffRetryPolicy;
+import org.dasein.cloud.digitalocean.models.rest.RetryPolicy;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 	
 
 /**
@@ -68,6 +86,23 @@ public class DigitalOcean extends AbstractCloud {
     
     private transient volatile DOProvider provider;
 
+    static private final int DEFAULT_MAX_CONNECTIONS           = 20;
+    static private final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+    static private final int DEFAULT_CONNECTION_IDLE_TIMEOUT   = 60;
+
+    private transient volatile PoolingClientConnectionManager connectionManager;
+    private transient volatile DefaultHttpClient client;
+    private transient volatile long idleTimeout = DEFAULT_CONNECTION_IDLE_TIMEOUT * 1000L;
+    private transient volatile long lastEviction;
+    private transient volatile ThreadPoolExecutor executor;
+    private transient volatile RetryPolicy retryPolicy;
+    private transient volatile ScheduledExecutorService scheduler;
+    private transient volatile ActionTracker actionTracker;
+    private transient volatile DropletInventory dropletInventory;
+    private transient int holds;
+    private transient boolean closing;
+    private transient volatile boolean closed;
+
     public @Nullable String getUrl() throws InternalException, CloudException {
         ProviderContext ctx = getContext();
         String url;
@@ -202,21 +237,345 @@ public class DigitalOcean extends AbstractCloud {
         }
     }
 
+    /**
+     * Releases the pooled HTTP connections and worker threads held by this provider in addition to the standard
+     * clean up. While the provider is held (see {@link #hold()}), e.g. by a listing still being loaded in the
+     * background, they are only released along with the last hold. Once released the provider cannot be used
+     * anymore.
+     */
+    @Override
+    public void close() {
+        try {
+            super.close();
+        }
+        finally {
+            boolean idle;
+
+            synchronized( this ) {
+                closing = true;
+                idle = (holds < 1);
+            }
+            if( idle ) {
+                shutdownConnectionManager();
+            }
+        }
+    }
+
+    @Override
+    public void hold() {
+        super.hold();
+        synchronized( this ) {
+            holds++;
+        }
+    }
+
+    @Override
+    public void release() {
+        try {
+            super.release();
+        }
+        finally {
+            boolean idle;
+
+            synchronized( this ) {
+                if( holds > 0 ) {
+                    holds--;
+                }
+                idle = (closing && holds < 1);
+            }
+            if( idle ) {
+                // the provider was closed while held, the last release does the clean up
+                shutdownConnectionManager();
+            }
+        }
+    }
+
     public @Nonnull HttpClient getClient() throws InternalException {
         return getClient(false);
     }
 
+    /**
+     * Provides an HTTP client backed by the connection pool owned by this provider. The pool is created lazily on
+     * first use and is shared by every service, so repeated calls (e.g. walking the pages of a listing) reuse
+     * keep-alive connections instead of opening a new TCP/TLS session per request. The pool is tuned through
+     * the following custom properties of the provider context:
+     * <ul>
+     *     <li>{@code maxConnections} - total number of pooled connections (default {@value #DEFAULT_MAX_CONNECTIONS})</li>
+     *     <li>{@code maxConnectionsPerRoute} - pooled connections per host (default {@value #DEFAULT_MAX_CONNECTIONS_PER_ROUTE})</li>
+     *     <li>{@code connectionIdleTimeout} - seconds an idle connection is kept before eviction (default {@value #DEFAULT_CONNECTION_IDLE_TIMEOUT})</li>
+     * </ul>
+     * @param multipart true if the client will be used to send multipart content
+     * @return a thread-safe HTTP client
+     * @throws InternalException if no context was set for this provider
+     */
     public @Nonnull HttpClient getClient(boolean multipart) throws InternalException {
         ProviderContext ctx = getContext();
         if( ctx == null ) {
             throw new InternalException("No context was specified for this request");
         }
+        if( closed ) {
+            throw new InternalException("The provider was closed");
+        }
+        PoolingClientConnectionManager manager = getConnectionManager();
+        evictIdleConnections(manager);
+        if( multipart ) {
+            // multipart requests must not have their charset forced, these are rare enough not to be cached
+            return createClient(ctx, manager, true);
+        }
+        DefaultHttpClient c = client;
+        if( c == null ) {
+            synchronized( this ) {
+                c = client;
+                if( c == null ) {
+                    c = createClient(ctx, manager, false);
+                    client = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Provides a single timer thread for work that has to happen later, such as the next poll of a pending action.
+     * Scheduled tasks must not block; anything talking to DigitalOcean is handed on to the {@link #getExecutor()
+     * executor}.
+     * @return the shared scheduler
+     * @throws RejectedExecutionException the provider was closed
+     */
+    public @Nonnull ScheduledExecutorService getScheduler() {
+        ScheduledExecutorService s = scheduler;
+        if( s == null ) {
+            synchronized( this ) {
+                s = scheduler;
+                if( s == null ) {
+                    if( closed ) {
+                        throw new RejectedExecutionException("The provider was closed");
+                    }
+                    s = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                        @Override
+                        public Thread newThread(@Nonnull Runnable r) {
+                            Thread t = new Thread(r, "DigitalOcean scheduler");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+                    scheduler = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * @return the tracker following the in-flight actions of this provider
+     */
+    public @Nonnull ActionTracker getActionTracker() {
+        ActionTracker t = actionTracker;
+        if( t == null ) {
+            synchronized( this ) {
+                t = actionTracker;
+                if( t == null ) {
+                    t = new ActionTracker(this);
+                    actionTracker = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * @return the local view of the droplets of this provider, see {@link DropletInventory#isEnabled()}
+     */
+    public @Nonnull DropletInventory getDropletInventory() {
+        DropletInventory i = dropletInventory;
+        if( i == null ) {
+            synchronized( this ) {
+                i = dropletInventory;
+                if( i == null ) {
+                    i = new DropletInventory(this);
+                    dropletInventory = i;
+                }
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Provides the policy deciding which failed requests are tried again. Unless one was set, this is an
+     * {@link ExponentialBackoffRetryPolicy} making at most {@code retryAttempts} (custom property) attempts.
+     * @return the retry policy of this provider
+     */
+    public @Nonnull RetryPolicy getRetryPolicy() {
+        RetryPolicy p = retryPolicy;
+        if( p == null ) {
+            p = new ExponentialBackoffRetryPolicy(getIntProperty("retryAttempts", ExponentialBackoffRetryPolicy.DEFAULT_MAX_ATTEMPTS), ExponentialBackoffRetryPolicy.DEFAULT_BASE_DELAY, ExponentialBackoffRetryPolicy.DEFAULT_MAX_DELAY, ExponentialBackoffRetryPolicy.DEFAULT_MAX_WAIT);
+            retryPolicy = p;
+        }
+        return p;
+    }
+
+    /**
+     * Replaces the policy deciding which failed requests are tried again.
+     * @param policy the policy to use, null restores the default
+     */
+    public void setRetryPolicy(@Nullable RetryPolicy policy) {
+        retryPolicy = policy;
+    }
+
+    /**
+     * @return the statistics of the shared connection pool or null if the pool has not been created yet
+     */
+    public @Nullable PoolStats getConnectionPoolStats() {
+        PoolingClientConnectionManager manager = connectionManager;
+        return (manager == null ? null : manager.getTotalStats());
+    }
+
+    private @Nonnull PoolingClientConnectionManager getConnectionManager() throws InternalException {
+        PoolingClientConnectionManager manager = connectionManager;
+        if( manager == null ) {
+            synchronized( this ) {
+                manager = connectionManager;
+                if( manager == null ) {
+                    if( closed ) {
+                        throw new InternalException("The provider was closed");
+                    }
+                    int maxTotal = getIntProperty("maxConnections", DEFAULT_MAX_CONNECTIONS);
+                    int maxPerRoute = getIntProperty("maxConnectionsPerRoute", DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+                    idleTimeout = getIntProperty("connectionIdleTimeout", DEFAULT_CONNECTION_IDLE_TIMEOUT) * 1000L;
+
+                    manager = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault());
+                    manager.setMaxTotal(maxTotal);
+                    manager.setDefaultMaxPerRoute(Math.min(maxPerRoute, maxTotal));
+                    lastEviction = System.currentTimeMillis();
+                    connectionManager = manager;
+                    if( logger.isDebugEnabled() ) {
+                        logger.debug("Created connection pool for " + getCloudName() + " [max=" + maxTotal + ", perRoute=" + maxPerRoute + ", idle=" + idleTimeout + "ms]");
+                    }
+                }
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * Closes expired connections and those idle for longer than the configured timeout. This piggybacks on
+     * normal client usage so no background thread needs to be managed per provider.
+     * @param manager the pool to clean up
+     */
+    private void evictIdleConnections(@Nonnull PoolingClientConnectionManager manager) {
+        long now = System.currentTimeMillis();
+        long interval = Math.max(1000L, idleTimeout / 2);
+
+        if( now - lastEviction < interval ) {
+            return;
+        }
+        lastEviction = now;
+        manager.closeExpiredConnections();
+        manager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    private void shutdownConnectionManager() {
+        PoolingClientConnectionManager manager;
+        ExecutorService workers;
+        ScheduledExecutorService timer;
+        ActionTracker tracker;
 
+        synchronized( this ) {
+            if( closed ) {
+                return;
+            }
+            closed = true;
+            manager = connectionManager;
+            workers = executor;
+            timer = scheduler;
+            tracker = actionTracker;
+            connectionManager = null;
+            client = null;
+            executor = null;
+            scheduler = null;
+            actionTracker = null;
+            dropletInventory = null;
+        }
+        if( tracker != null ) {
+            // fail the waiters now, the polls that would have resolved them are about to be dropped
+            tracker.shutdown();
+        }
+        if( timer != null ) {
+            timer.shutdownNow();
+        }
+        if( workers != null ) {
+            workers.shutdown();
+        }
+        if( manager != null ) {
+            manager.shutdown();
+        }
+    }
+
+    /**
+     * Reads a positive integer setting from the custom properties of the current context.
+     * @param name the name of the custom property
+     * @param defaultValue the value to use when the property is missing or invalid
+     * @return the configured value or the default
+     */
+    public int getIntProperty(@Nonnull String name, int defaultValue) {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+        String value = (p == null ? null : p.getProperty(name));
+        if( value == null || value.trim().length() < 1 ) {
+            return defaultValue;
+        }
+        try {
+            int i = Integer.parseInt(value.trim());
+            return (i > 0 ? i : defaultValue);
+        }
+        catch( NumberFormatException e ) {
+            logger.warn("Invalid value for " + name + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Provides the pool of worker threads this provider uses to run requests in the background, such as
+     * prefetching the pages of a listing. The number of workers defaults to the number of pooled connections per
+     * route and can be set with the {@code workerThreads} custom property. Idle workers are discarded.
+     * @return the shared executor
+     * @throws RejectedExecutionException the provider was closed
+     */
+    public @Nonnull ExecutorService getExecutor() {
+        ThreadPoolExecutor e = executor;
+        if( e == null ) {
+            synchronized( this ) {
+                e = executor;
+                if( e == null ) {
+                    if( closed ) {
+                        throw new RejectedExecutionException("The provider was closed");
+                    }
+                    int workers = getIntProperty("workerThreads", DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+                    e = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        private final AtomicInteger count = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(@Nonnull Runnable r) {
+                            Thread t = new Thread(r, "DigitalOcean worker " + count.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+                    e.allowCoreThreadTimeOut(true);
+                    executor = e;
+                }
+            }
+        }
+        return e;
+    }
+
+    private @Nonnull DefaultHttpClient createClient(@Nonnull ProviderContext ctx, @Nonnull ClientConnectionManager manager, boolean multipart) {
         final HttpParams params = new BasicHttpParams();
         int timeout = 15000;
         HttpConnectionParams.setConnectionTimeout(params, timeout);
         HttpConnectionParams.setSoTimeout(params, timeout);
-
+        // don't block forever waiting for a pooled connection to become available
+        params.setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, timeout);
 
         HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);
         if( !multipart ) {
@@ -238,8 +597,8 @@ public class DigitalOcean extends AbstractCloud {
                 );
             }
         }
-        DefaultHttpClient client = new DefaultHttpClient(params);
-        client.addRequestInterceptor(new HttpRequestInterceptor() {
+        DefaultHttpClient httpClient = new DefaultHttpClient(manager, params);
+        httpClient.addRequestInterceptor(new HttpRequestInterceptor() {
             public void process(
                     final HttpRequest request,
                     final HttpContext context) throws HttpException, IOException {
@@ -249,7 +608,7 @@ public class DigitalOcean extends AbstractCloud {
                 request.setParams(params);
             }
         });
-        client.addResponseInterceptor(new HttpResponseInterceptor() {
+        httpClient.addResponseInterceptor(new HttpResponseInterceptor() {
             public void process(
                     final HttpResponse response,
                     final HttpContext context) throws HttpException, IOException {
@@ -268,6 +627,6 @@ public class DigitalOcean extends AbstractCloud {
                 }
             }
         });
-        return client;
+        return httpClient;
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.compute;
+
+import org.apache.http.concurrent.FutureCallback;
+import org.dasein.cloud.compute.VMLaunchOptions;
+import org.dasein.cloud.compute.VirtualMachine;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.Future;
+
+/**
+ * Non-blocking variants of the droplet lifecycle operations. Each method returns at once with a future that
+ * completes when DigitalOcean reports the underlying action as completed, or fails when it reports it as errored.
+ * Pending operations hold no thread while waiting, so a single caller can drive hundreds of them at a time.
+ * <p>As with the blocking operations, starting a droplet that is not stopped, or stopping or rebooting one that is
+ * not running, completes immediately without doing anything.</p>
+ */
+public interface AsyncVirtualMachineSupport {
+    /**
+     * Launches a droplet.
+     * @param withLaunchOptions the launch configuration
+     * @param callback notified of the outcome, may be null
+     * @return a future of the droplet, completed once it reaches the default {@link LaunchReadiness}
+     */
+    @Nonnull Future<VirtualMachine> launchAsync(@Nonnull VMLaunchOptions withLaunchOptions, @Nullable FutureCallback<VirtualMachine> callback);
+
+    /**
+     * Powers a stopped droplet on.
+     * @param vmId the droplet to start
+     * @param callback notified of the outcome, may be null
+     * @return a future completed once the droplet is started
+     */
+    @Nonnull Future<Void> startAsync(@Nonnull String vmId, @Nullable FutureCallback<Void> callback);
+
+    /**
+     * Powers a running droplet off.
+     * @param vmId the droplet to stop
+     * @param force ignored, droplets are always powered off
+     * @param callback notified of the outcome, may be null
+     * @return a future completed once the droplet is stopped
+     */
+    @Nonnull Future<Void> stopAsync(@Nonnull String vmId, boolean force, @Nullable FutureCallback<Void> callback);
+
+    /**
+     * Reboots a running droplet.
+     * @param vmId the droplet to reboot
+     * @param callback notified of the outcome, may be null
+     * @return a future completed once the droplet is rebooted
+     */
+    @Nonnull Future<Void> rebootAsync(@Nonnull String vmId, @Nullable FutureCallback<Void> callback);
+
+    /**
+     * Destroys a droplet.
+     * @param vmId the droplet to destroy
+     * @param explanation why the droplet is destroyed, may be null
+     * @param callback notified of the outcome, may be null
+     * @return a future completed once DigitalOcean accepted the destruction
+     */
+    @Nonnull Future<Void> terminateAsync(@Nonnull String vmId, @Nullable String explanation, @Nullable FutureCallback<Void> callback);
+
+    /**
+     * Resizes a powered off droplet.
+     * @param vmId the droplet to resize
+     * @param productId the new size
+     * @param callback notified of the outcome, may be null
+     * @return a future of the resized droplet
+     */
+    @Nonnull Future<VirtualMachine> alterVirtualMachineProductAsync(@Nonnull String vmId, @Nonnull String productId, @Nullable FutureCallback<VirtualMachine> callback);
+}
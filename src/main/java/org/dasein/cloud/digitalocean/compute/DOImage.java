@@ -32,10 +32,11 @@ import org.dasein.cloud.digitalocean.DigitalOcean;
 import org.dasein.cloud.digitalocean.models.Action;
 import org.dasein.cloud.digitalocean.models.Droplet;
 import org.dasein.cloud.digitalocean.models.Image;
-import org.dasein.cloud.digitalocean.models.Images;
 import org.dasein.cloud.digitalocean.models.actions.image.Destroy;
 import org.dasein.cloud.digitalocean.models.actions.droplet.Snapshot;
+import org.dasein.cloud.digitalocean.models.rest.ActionTracker;
 import org.dasein.cloud.digitalocean.models.rest.DigitalOceanModelFactory;
+import org.dasein.cloud.digitalocean.models.rest.PagedIterable;
 import org.dasein.cloud.identity.ServiceAction;
 import org.dasein.cloud.util.APITrace;
 import org.dasein.cloud.util.Cache;
@@ -48,7 +49,10 @@ import org.dasein.util.uom.time.TimePeriod;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -99,17 +103,8 @@ public class DOImage extends AbstractImageSupport<DigitalOcean> {
             getProvider().getComputeServices().getVirtualMachineSupport().waitForAllDropletEventsToComplete(options.getVirtualMachineId(), 5);
             List<String> previousSnapshotIds = Arrays.asList(droplet.getSnapshotIds());
             Action action = performAction(getProvider(), new Snapshot(options.getName()), options.getVirtualMachineId());
-            while( !action.isComplete() ) {
-                try {
-                    Thread.sleep(2000L);
-                }
-                catch( InterruptedException e ) {
-                }
-                if( action.isError() ) {
-                    throw new CloudException(action.getStatus());
-                }
-                action = DigitalOceanModelFactory.getEventById(getProvider(), action.getId());
-            }
+            getProvider().getActionTracker().await(action, ActionTracker.ACTION_TIMEOUT);
+            ImageCatalog.expire(getCatalogPrefix());
             droplet = DigitalOceanModelFactory.getDropletByInstance(getProvider(), options.getVirtualMachineId());
             // create a new list as Arrays.asList returns an unmodifiable list
             List<String> newSnapshotIds = new ArrayList<String>();
@@ -136,96 +131,157 @@ public class DOImage extends AbstractImageSupport<DigitalOcean> {
     public @Nonnull Iterable<MachineImage> searchImages(String accountNumber, String keyword, Platform platform, Architecture architecture, ImageClass... imageClasses) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "Image.searchImages");
         try {
-            List<MachineImage> results = new ArrayList<MachineImage>();
-            Collection<MachineImage> images = new ArrayList<MachineImage>();
-            if (accountNumber == null) {
-                images.addAll((Collection<MachineImage>) searchPublicImages(ImageFilterOptions.getInstance()));
+            // DO only has machine images
+            if( imageClasses != null && imageClasses.length > 0 && !Arrays.asList(imageClasses).contains(ImageClass.MACHINE) ) {
+                return Collections.emptyList();
+            }
+            ImageQuery.Scope scope = ImageQuery.Scope.ALL;
+            if( DO_OWNER_ID.equals(accountNumber) ) {
+                scope = ImageQuery.Scope.PUBLIC;
+            }
+            else if( accountNumber != null ) {
+                scope = ImageQuery.Scope.PRIVATE;
+            }
+            ImageFilterOptions options = ImageFilterOptions.getInstance();
+            if( platform != null ) {
+                options.onPlatform(platform);
             }
-            images.addAll((Collection<MachineImage>) listImages(ImageFilterOptions.getInstance()));
+            if( architecture != null ) {
+                options.withArchitecture(architecture);
+            }
+            ImageQuery plan = ImageQuery.plan(scope, options);
+            if( plan.getListings().isEmpty() ) {
+                return Collections.emptyList();
+            }
+            String regionId = getContext().getRegionId();
+            if( regionId == null ) {
+                throw new CloudException("No region was set for this request");
+            }
+            return getCatalog(regionId).search(plan.getScope(), regionId, keyword, platform, architecture, catalogSource);
+        } finally {
+            APITrace.end();
+        }
+    }
 
-            for (MachineImage image : images) {
-                if (image != null) {
-                    if (keyword != null) {
-                        if (!image.getProviderMachineImageId().contains(keyword) && !image.getName().contains(keyword) && !image.getDescription().contains(keyword)) {
-                            continue;
-                        }
-                    }
-                    if (platform != null) {
-                        Platform p = image.getPlatform();
-
-                        if (!platform.equals(p)) {
-                            if (platform.isWindows()) {
-                                if (!p.isWindows()) {
-                                    continue;
-                                }
-                            } else if (platform.equals(Platform.UNIX)) {
-                                if (!p.isUnix()) {
-                                    continue;
-                                }
-                            } else {
-                                continue;
-                            }
-                        }
-                    }
-                    if (architecture != null) {
-                        if (architecture != image.getArchitecture()) {
-                            continue;
-                        }
+    /**
+     * Provides the indexed catalog of every image the account can use, refreshing it if it has expired.
+     * @param regionId the region of the context
+     * @return the catalog
+     */
+    private @Nonnull ImageCatalog getCatalog(@Nonnull String regionId) throws CloudException, InternalException {
+        return ImageCatalog.getInstance(getCatalogPrefix() + regionId, catalogSource);
+    }
+
+    /**
+     * Lists and converts the images of the catalogs of this account.
+     */
+    private final ImageCatalog.Source catalogSource = new ImageCatalog.Source() {
+        @Override
+        public @Nonnull Iterable<Image> list() throws CloudException, InternalException {
+            APITrace.begin(provider, "Image.listCatalog");
+            try {
+                List<Image> images = new ArrayList<Image>();
+                for( ImageQuery.Listing listing : ImageQuery.plan(ImageQuery.Scope.ALL, ImageFilterOptions.getInstance()).getListings() ) {
+                    for( Image image : walk(listing) ) {
+                        images.add(image);
                     }
-                    results.add(image);
                 }
+                return images;
             }
+            finally {
+                APITrace.end();
+            }
+        }
 
-            return results;
-        } finally {
-            APITrace.end();
+        @Override
+        public @Nullable MachineImage toImage(@Nonnull Image image) throws CloudException, InternalException {
+            return DOImage.this.toImage(image);
+        }
+    };
+
+    /**
+     * The catalogs outlive the providers, so they are kept under a digest of the API token rather than the token
+     * itself.
+     * @return the start of the keys of the catalogs of this account
+     * @throws InternalException the digest is not available
+     */
+    private @Nonnull String getCatalogPrefix() throws InternalException {
+        Object token = getContext().getConfigurationValue("token");
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(String.valueOf(token).getBytes("UTF-8"));
+            StringBuilder prefix = new StringBuilder(digest.length * 2 + 1);
+
+            for( byte b : digest ) {
+                prefix.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return prefix.append('/').toString();
+        }
+        catch( NoSuchAlgorithmException e ) {
+            throw new InternalException(e);
+        }
+        catch( UnsupportedEncodingException e ) {
+            throw new InternalException(e);
         }
     }
 
-    private @Nonnull Iterable<MachineImage> executeImageSearch(boolean publicImagesOnly, @Nonnull ImageFilterOptions options) throws CloudException, InternalException {
+    /**
+     * Walks one of the listings of a plan.
+     * @param listing the listing
+     * @return the images, pages after the first are prefetched in parallel and handed back in order
+     */
+    private @Nonnull Iterable<Image> walk(@Nonnull ImageQuery.Listing listing) throws CloudException, InternalException {
+        return new PagedIterable<Image, Image>(getProvider(), listing.getEndpoint(), listing.getQuery(), Image.class) {
+            @Override
+            protected Image convert(@Nonnull Image image) {
+                return image;
+            }
+        };
+    }
+
+    /**
+     * Lists the images a search may match. Only the listings picked by the plan are requested; the filter itself is
+     * left to the caller.
+     * @param plan the listings to walk
+     * @param options the filter, only its region settings are applied here
+     * @return the images in the scope of the search
+     */
+    private @Nonnull Iterable<MachineImage> executeImageSearch(@Nonnull ImageQuery plan, @Nonnull ImageFilterOptions options) throws CloudException, InternalException {
         APITrace.begin(provider, "Image.executeImageSearch");
         try {
             final String regionId = getContext().getRegionId();
             if( regionId == null ) {
                 throw new CloudException("No region was set for this request");
             }
-
-            Architecture architecture = options.getArchitecture();
-            if( architecture != null && !architecture.equals(Architecture.I32) && !architecture.equals(Architecture.I64) ) {
-                if( !options.isMatchesAny() ) {
-                    return Collections.emptyList();
-                }
+            if( plan.getListings().isEmpty() ) {
+                return Collections.emptyList();
             }
 
             String cacheName = "ALL";
             if( !options.getWithAllRegions() ) {
                 cacheName = regionId;
             }
-            Cache<MachineImage> cache = Cache.getInstance(provider, "images" + ( publicImagesOnly ? "pub" : "prv" ) + "-" + cacheName, MachineImage.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Minute>(5, TimePeriod.MINUTE));
+            Cache<MachineImage> cache = Cache.getInstance(provider, "images" + getCacheScope(plan.getScope()) + "-" + cacheName, MachineImage.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Minute>(5, TimePeriod.MINUTE));
             Collection<MachineImage> cachedImages = ( Collection<MachineImage> ) cache.get(getContext());
             if( cachedImages != null ) {
                 return cachedImages;
             }
             final List<MachineImage> results = new ArrayList<MachineImage>();
-            final org.dasein.cloud.digitalocean.models.rest.DigitalOcean cmd = publicImagesOnly ? org.dasein.cloud.digitalocean.models.rest.DigitalOcean.IMAGES_PUBLIC : org.dasein.cloud.digitalocean.models.rest.DigitalOcean.IMAGES;
 
-            Images images = (Images) getModel(getProvider(), cmd);
-            int total = images.getTotal();
-            int page = 1;
-            while( images.getImages().size() > 0 ) { // let's check >0 just in case
-                for( Image image : images.getImages() ) {
-                    MachineImage machineImage = toImage(image);
+            for( ImageQuery.Listing listing : plan.getListings() ) {
+                for( Image image : walk(listing) ) {
+                    if( !plan.accepts(image) ) {
+                        continue;
+                    }
                     // check if image regions match the requested region if any
-                    if( !options.getWithAllRegions() && image.getRegions().length > 0 && !Arrays.asList(image.getRegions()).contains(getContext().getRegionId()) ) {
-                        total--;
+                    if( !options.getWithAllRegions() && image.getRegions().length > 0 && !Arrays.asList(image.getRegions()).contains(regionId) ) {
                         continue;
                     }
+                    MachineImage machineImage = toImage(image);
 
-                    if( machineImage != null && publicImagesOnly == machineImage.isPublic() ) {
+                    if( machineImage != null ) {
                         if( options.getWithAllRegions() ) {
-                            // explode image to all regions, update total count
-                            int regions = image.getRegions().length;
-                            total += regions - 1;
+                            // explode image to all regions
                             for( String region : image.getRegions() ) {
                                 machineImage.setProviderRegionId(region);
                                 results.add(machineImage);
@@ -237,14 +293,7 @@ public class DOImage extends AbstractImageSupport<DigitalOcean> {
                             results.add(machineImage);
                         }
                     }
-                    else {
-                        total--; // remove the defective image from the count
-                    }
                 }
-                if( total <= 0 || total == results.size() ) {
-                    break;
-                }
-                images = (Images) getModel(getProvider(), cmd, ++page);
             }
             cache.put(getContext(), results);
             return results;
@@ -257,6 +306,14 @@ public class DOImage extends AbstractImageSupport<DigitalOcean> {
         }
     }
 
+    static private @Nonnull String getCacheScope(@Nonnull ImageQuery.Scope scope) {
+        switch( scope ) {
+            case PUBLIC: return "pub";
+            case PRIVATE: return "prv";
+            default: return "all";
+        }
+    }
+
     private MachineImage toImage(org.dasein.cloud.digitalocean.models.Image image) throws InternalException, CloudException {
         if (image == null) {
             return null;
@@ -390,28 +447,13 @@ public class DOImage extends AbstractImageSupport<DigitalOcean> {
     private @Nonnull Iterable<ResourceStatus> executeStatusList(@Nonnull ImageClass cls) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "Image.executeStatusList");
         try {
-            List<ResourceStatus> results = new ArrayList<ResourceStatus>();
-
-            Images images = (Images) getModel(getProvider(), org.dasein.cloud.digitalocean.models.rest.DigitalOcean.IMAGES);
-            int total = images.getTotal();
-            int page = 1;
-            while( true ) {
-                for( Image image: images.getImages() ) {
-                    ResourceStatus status = toStatus(image);
-                    if (status != null ) {
-                        results.add(status);
-                    }
-                    else {
-                        total--;
-                    }
-                }
-                if( total <= 0 || total == results.size() ) {
-                    break;
+            // pages are only fetched as the caller iterates
+            return new PagedIterable<Image, ResourceStatus>(getProvider(), org.dasein.cloud.digitalocean.models.rest.DigitalOcean.IMAGES, Image.class) {
+                @Override
+                protected ResourceStatus convert(@Nonnull Image image) throws InternalException {
+                    return toStatus(image);
                 }
-                images = (Images) getModel(getProvider(), org.dasein.cloud.digitalocean.models.rest.DigitalOcean.IMAGES, ++page);
-            }
-
-            return results;
+            };
         }
         catch (Exception e) {
             logger.error(e.getMessage());
@@ -434,6 +476,7 @@ public class DOImage extends AbstractImageSupport<DigitalOcean> {
         APITrace.begin(getProvider(), "Image.remove");
         try {
             DigitalOceanModelFactory.performAction(getProvider(), new Destroy(), providerImageId);
+            ImageCatalog.expire(getCatalogPrefix());
         }
         finally {
             APITrace.end();
@@ -462,8 +505,8 @@ public class DOImage extends AbstractImageSupport<DigitalOcean> {
             public void populate(@Nonnull Jiterator<MachineImage> iterator) throws Exception {
                 APITrace.begin(getProvider(), "Image.listImages");
                 try {
-                    for (MachineImage img : executeImageSearch(false, opts)) {
-                        if( options.matches(img) ) {
+                    for (MachineImage img : executeImageSearch(ImageQuery.plan(ImageQuery.Scope.PRIVATE, opts), opts)) {
+                        if( opts.matches(img) ) {
                             iterator.push(img);
                         }
                     }
@@ -490,7 +533,7 @@ public class DOImage extends AbstractImageSupport<DigitalOcean> {
                 APITrace.begin(getProvider(), "searchPublicImages");
                 try {
                     try {
-                        for (MachineImage img : executeImageSearch(true, options)) {
+                        for (MachineImage img : executeImageSearch(ImageQuery.plan(ImageQuery.Scope.PUBLIC, options), options)) {
                             if( options.matches(img) ) {
                                 iterator.push(img);
                             }
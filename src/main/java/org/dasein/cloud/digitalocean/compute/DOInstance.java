@@ -19,13 +19,22 @@
 
 package org.dasein.cloud.digitalocean.compute;
 
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.log4j.Logger;
 import org.dasein.cloud.*;
 import org.dasein.cloud.compute.*;
 import org.dasein.cloud.digitalocean.DigitalOcean;
 import org.dasein.cloud.digitalocean.models.*;
 import org.dasein.cloud.digitalocean.models.actions.droplet.*;
+import org.dasein.cloud.digitalocean.models.rest.AdaptiveWait;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanAction;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanAsyncModelFactory;
 import org.dasein.cloud.digitalocean.models.rest.DigitalOceanModelFactory;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanPostAction;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanRestModel;
+import org.dasein.cloud.digitalocean.models.rest.PagedIterable;
+import org.dasein.cloud.digitalocean.models.rest.Projection;
 import static org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLETS;
 import org.dasein.cloud.network.IPVersion;
 import org.dasein.cloud.network.RawAddress;
@@ -42,14 +51,23 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletResponse;
 import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
-import static org.dasein.cloud.digitalocean.models.rest.DigitalOceanModelFactory.getModel;
 
-
-public class DOInstance extends AbstractVMSupport<DigitalOcean> {
+public class DOInstance extends AbstractVMSupport<DigitalOcean> implements AsyncVirtualMachineSupport {
     static private final Logger logger = Logger.getLogger(DOInstance.class);
 
+    static private final long LAUNCH_TIMEOUT = 20L * 60000L;
+
+    static private final int MAX_TAG_NAME_LENGTH = 255;
+
     private transient volatile DOInstanceCapabilities capabilities;
 
     public DOInstance(DigitalOcean provider) {
@@ -62,7 +80,7 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
         
         try {
 
-        	VirtualMachine vm = getVirtualMachine(virtualMachineId);
+        	VirtualMachine vm = getVirtualMachine(virtualMachineId, true);
         	
         	if (!getCapabilities().canAlter(vm.getCurrentState())) {
         		throw new CloudException("Droplet is currently " + vm.getCurrentState() + ". Please power it off to run this event.");        		
@@ -75,7 +93,8 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
     		Resize action = new Resize(productId);
 
             DigitalOceanModelFactory.performAction(getProvider(), action, virtualMachineId);
-            vm = getVirtualMachine(virtualMachineId);
+            getProvider().getDropletInventory().touch(virtualMachineId);
+            vm = getVirtualMachine(virtualMachineId, true);
             return vm;
         } catch( CloudException e ) {
             logger.error(e.getMessage());
@@ -86,37 +105,50 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
     }
 
     /**
-     * Wait for specified number of minutes for all pending droplet events to complete
+     * Wait for specified number of minutes for all pending droplet events to complete. Returns as soon as the
+     * droplet has no pending event left; the events are followed by the provider's action tracker, which checks
+     * quickly at first and backs off for longer events.
      * @param instanceId Id of the droplet
      * @param timeout Time in minutes to wait for events to complete
-     * @throws InternalException
+     * @return the time actually spent waiting, in milliseconds
+     * @throws InternalException the thread was interrupted while waiting
      * @throws CloudException
      */
-    void waitForAllDropletEventsToComplete(@Nonnull String instanceId, int timeout) throws InternalException, CloudException {
+    long waitForAllDropletEventsToComplete(@Nonnull String instanceId, int timeout) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "listVirtualMachineStatus");
+        AdaptiveWait wait = new AdaptiveWait(timeout * 60L * 1000L);
         try {
-            // allow maximum five minutes for events to complete
-            long wait = System.currentTimeMillis() + timeout * 60 * 1000;
-            boolean eventsPending = false;
-            while( System.currentTimeMillis() < wait ) {
+            while( !wait.isExpired() ) {
+                List<Action> pending = new ArrayList<Action>();
                 Actions actions = DigitalOceanModelFactory.getDropletEvents(getProvider(), instanceId);
                 for( Action action : actions.getActions() ) {
-                    if( "in-progress".equalsIgnoreCase(action.getStatus()) ) {
-                        eventsPending = true;
+                    if( !action.isComplete() ) {
+                        pending.add(action);
                     }
                 }
-                if( !eventsPending ) {
+                if( pending.isEmpty() ) {
                     break;
                 }
-                try {
-                    // must be careful here not to cause rate limits
-                    Thread.sleep(30000);
-                }
-                catch( InterruptedException e ) {
-                    break;
+                for( Action action : pending ) {
+                    try {
+                        // the tracker resolves every pending action from one shared poll
+                        getProvider().getActionTracker().await(action, wait.getRemaining());
+                    }
+                    catch( CloudException e ) {
+                        // errored or still pending, either way the next operation will tell
+                        logger.debug("Action " + action.getId() + " on droplet " + instanceId + ": " + e.getMessage());
+                    }
+                    if( wait.isExpired() ) {
+                        break;
+                    }
                 }
+                // events queued while we waited are picked up by the next round
             }
             // if events are still pending the cloud will fail the next operation anyway
+            if( logger.isDebugEnabled() ) {
+                logger.debug("Waited " + wait.getElapsed() + "ms for the events of droplet " + instanceId);
+            }
+            return wait.getElapsed();
         }
         finally {
             APITrace.end();
@@ -128,13 +160,14 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
         APITrace.begin(getProvider(), "startVM");
         try {
             waitForAllDropletEventsToComplete(instanceId, 5);
-            VirtualMachine vm = getVirtualMachine(instanceId);
+            VirtualMachine vm = getVirtualMachine(instanceId, true);
             if( vm == null ) {
                 throw new CloudException("No such instance: " + instanceId);
             }
             // only start if droplet is stopped, otherwise DO will give us an error
             if( VmState.STOPPED.equals(vm.getCurrentState() ) ) {
                 DigitalOceanModelFactory.performAction(getProvider(), new Start(), instanceId);
+                getProvider().getDropletInventory().touch(instanceId);
             }
         } catch( CloudException e ) {
             logger.error(e.getMessage());
@@ -159,9 +192,25 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
 
     @Override
     public @Nullable VirtualMachine getVirtualMachine(@Nonnull String instanceId) throws InternalException, CloudException {
+        return getVirtualMachine(instanceId, false);
+    }
+
+    /**
+     * @param instanceId the id of the droplet
+     * @param current true to bypass the droplet inventory, for operations that act on the state of the droplet
+     * @return the droplet or null if there is no such droplet
+     */
+    private @Nullable VirtualMachine getVirtualMachine(@Nonnull String instanceId, boolean current) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "getVirtualMachine");
         try {
-            Droplet d = (Droplet) DigitalOceanModelFactory.getModelById(getProvider(), org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLET, instanceId);
+            DropletInventory inventory = getProvider().getDropletInventory();
+            Droplet d;
+            if( !current && inventory.isEnabled() ) {
+                d = inventory.get(instanceId);
+            }
+            else {
+                d = (Droplet) DigitalOceanModelFactory.getModelById(getProvider(), org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLET, instanceId);
+            }
             if (d != null) {
                 VirtualMachine server = toVirtualMachine(d);
                 if (server != null && server.getProviderVirtualMachineId().equals(instanceId)) {
@@ -272,112 +321,411 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
 
 	@Override
     public @Nonnull VirtualMachine launch(@Nonnull VMLaunchOptions cfg) throws CloudException, InternalException {
+        return launch(cfg, getDefaultLaunchReadiness(), null);
+    }
+
+    /**
+     * Launches a droplet and returns as soon as it reaches the requested readiness level. The droplet is polled
+     * quickly at first and less often the longer it takes. If the level is not reached within the launch timeout,
+     * or the thread is interrupted, the droplet is returned as last seen rather than lost. Failed polls (right after
+     * the create, DigitalOcean may not know about the droplet yet) are retried the same way.
+     * @param cfg the launch configuration
+     * @param readiness how far the droplet must have come
+     * @param timings filled in with where the time of the launch went, may be null
+     * @return the new droplet
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public @Nonnull VirtualMachine launch(@Nonnull VMLaunchOptions cfg, @Nonnull LaunchReadiness readiness, @Nullable LaunchTimings timings) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "launchVM");
         try {
-            ProviderContext ctx = getProvider().getContext();
-            if( ctx == null ) {
-                throw new CloudException("No context was established for this request");
+            long started = System.currentTimeMillis();
+            if( timings == null ) {
+                timings = new LaunchTimings();
             }
-            MachineImage img = getProvider().getComputeServices().getImageSupport().getMachineImage(cfg.getMachineImageId());
-            if( img == null ) {
-                throw new InternalException("No such machine image: " + cfg.getMachineImageId());
+            Droplet droplet = createDroplet(cfg);
+            getProvider().getDropletInventory().touch(droplet.getId());
+            timings.setAccepted(System.currentTimeMillis() - started);
+            record(timings, droplet, started);
+
+            AdaptiveWait wait = new AdaptiveWait(LAUNCH_TIMEOUT);
+            while( !readiness.isReached(droplet) ) {
+                try {
+                    if( !wait.pause() ) {
+                        logger.warn("Droplet " + droplet.getId() + " did not reach " + readiness + " within " + wait.getElapsed() + "ms");
+                        break;
+                    }
+                }
+                catch( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                Droplet current;
+                try {
+                    current = pollDroplet(droplet.getId());
+                }
+                catch( InternalException e ) {
+                    logger.warn("Stopped checking new droplet " + droplet.getId() + ": " + e.getMessage());
+                    break;
+                }
+                timings.polled();
+                if( current != null ) {
+                    droplet = current;
+                    record(timings, droplet, started);
+                }
             }
+            timings.setTotal(System.currentTimeMillis() - started);
+            if( logger.isDebugEnabled() ) {
+                logger.debug("Launched droplet " + droplet.getId() + " to " + readiness + ": " + timings);
+            }
+            VirtualMachine vm = toVirtualMachine(droplet);
+            if( vm == null ) {
+                throw new CloudException("Unable to load the new droplet " + droplet.getId());
+            }
+            return vm;
+        } finally {
+            APITrace.end();
+        }
+    }
 
-            String hostname = cfg.getHostName();
-            if( hostname == null ) {
+    /**
+     * Launches {@code count} droplets configured alike, named after the host name of the configuration with a
+     * numeric suffix. They are created {@value Create#MAX_NAMES} per request, with the requests running concurrently.
+     */
+    @Override
+    public @Nonnull Iterable<String> launchMany(@Nonnull VMLaunchOptions withLaunchOptions, int count) throws CloudException, InternalException {
+        if( count < 1 ) {
+            throw new InternalException("Invalid count: " + count);
+        }
+        String hostname = withLaunchOptions.getHostName();
+        if( hostname == null ) {
+            throw new InternalException("No hostname defined  as part of launch options.");
+        }
+        LaunchGroup group = new LaunchGroup(withLaunchOptions);
+        for( int i = 1; i <= count; i++ ) {
+            group.names.add(count == 1 ? hostname : hostname + "-" + i);
+        }
+        List<String> ids = new ArrayList<String>();
+        for( VirtualMachine vm : launchGroups(Collections.singletonList(group)) ) {
+            ids.add(vm.getProviderVirtualMachineId());
+        }
+        return ids;
+    }
+
+    /**
+     * Launches a batch of droplets. Configurations that differ only by host name are grouped and created up to
+     * {@value Create#MAX_NAMES} per request; the requests run concurrently under the provider's rate limiter.
+     * If some requests fail, the droplets created by the others are still returned and the failures are logged.
+     * @param configs the launch configurations, one per droplet
+     * @return the new droplets, at the default {@link LaunchReadiness} level
+     * @throws CloudException every request failed
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public @Nonnull Iterable<VirtualMachine> launchMany(@Nonnull List<VMLaunchOptions> configs) throws CloudException, InternalException {
+        Map<String, LaunchGroup> groups = new LinkedHashMap<String, LaunchGroup>();
+
+        for( VMLaunchOptions cfg : configs ) {
+            if( cfg.getHostName() == null ) {
                 throw new InternalException("No hostname defined  as part of launch options.");
             }
-            
-            String product = cfg.getStandardProductId();
-            if( product == null ) {
-                throw new InternalException("No product defined as part of launch options.");
+            String key = cfg.getMachineImageId() + "|" + cfg.getStandardProductId() + "|" + cfg.getDataCenterId() + "|" + cfg.getBootstrapKey() + "|" + cfg.getUserData();
+            LaunchGroup group = groups.get(key);
+            if( group == null ) {
+                group = new LaunchGroup(cfg);
+                groups.put(key, group);
             }
+            group.names.add(cfg.getHostName());
+        }
+        return launchGroups(groups.values());
+    }
 
-            String regionId = cfg.getDataCenterId();         
-            if( regionId == null ) {
-            	if (ctx.getRegionId() != null) {
-            		regionId = ctx.getRegionId();
-            	} else {
-            		throw new InternalException("No region defined as part of launch options.");
-            	}
-            }
+    /**
+     * Droplets to launch with the same configuration.
+     */
+    static private class LaunchGroup {
+        private final VMLaunchOptions cfg;
+        private final List<String>    names = new ArrayList<String>();
+
+        private LaunchGroup(@Nonnull VMLaunchOptions cfg) {
+            this.cfg = cfg;
+        }
+    }
 
-            Map<String, Object> extraParams = null;
-            if(cfg.getUserData() != null && !cfg.getUserData().equals("")){
-                extraParams = new HashMap<String, Object>();
-                extraParams.put("user_data", cfg.getUserData());
+    private @Nonnull List<VirtualMachine> launchGroups(@Nonnull Collection<LaunchGroup> groups) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "launchManyVMs");
+        try {
+            List<Callable<List<Droplet>>> calls = new ArrayList<Callable<List<Droplet>>>();
+            List<FutureTask<List<Droplet>>> requests = new ArrayList<FutureTask<List<Droplet>>>();
+
+            for( final LaunchGroup group : groups ) {
+                for( int i = 0; i < group.names.size(); i += Create.MAX_NAMES ) {
+                    final List<String> names = group.names.subList(i, Math.min(i + Create.MAX_NAMES, group.names.size()));
+                    Callable<List<Droplet>> call = new Callable<List<Droplet>>() {
+                        @Override
+                        public List<Droplet> call() throws Exception {
+                            return createDroplets(group.cfg, names);
+                        }
+                    };
+                    FutureTask<List<Droplet>> request = new FutureTask<List<Droplet>>(call);
+                    try {
+                        getProvider().getExecutor().execute(request);
+                    }
+                    catch( RejectedExecutionException ignore ) {
+                        // run below by this thread
+                    }
+                    calls.add(call);
+                    requests.add(request);
+                }
             }
+            List<Droplet> created = new ArrayList<Droplet>();
+            Exception failure = null;
 
-            Droplet droplet = DigitalOceanModelFactory.createInstance(getProvider(), hostname, product, cfg.getMachineImageId(), regionId, cfg.getBootstrapKey(), extraParams);
-            // returned droplet doesn't have enough information for our VirtualMachine to be complete, let's refresh
-            try { Thread.sleep(5000L); } catch( InterruptedException e ) {} // wait 5 sec for vm to get into a better shape
-            return getVirtualMachine(droplet.getId());
-        } finally {
+            for( int i = 0; i < requests.size(); i++ ) {
+                FutureTask<List<Droplet>> request = requests.get(i);
+                try {
+                    if( request.cancel(false) ) {
+                        // not picked up by any worker yet, send it from here
+                        request = new FutureTask<List<Droplet>>(calls.get(i));
+                        request.run();
+                    }
+                    created.addAll(request.get());
+                }
+                catch( ExecutionException e ) {
+                    logger.error("Unable to launch droplets: " + e.getCause().getMessage());
+                    failure = (e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                }
+                catch( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    throw new InternalException(e);
+                }
+            }
+            DropletInventory inventory = getProvider().getDropletInventory();
+            if( failure != null ) {
+                // a failed request may still have created droplets nobody here knows the ids of
+                inventory.invalidate();
+            }
+            for( Droplet droplet : created ) {
+                inventory.touch(droplet.getId());
+            }
+            if( created.isEmpty() && failure != null ) {
+                if( failure instanceof CloudException ) {
+                    throw (CloudException) failure;
+                }
+                if( failure instanceof InternalException ) {
+                    throw (InternalException) failure;
+                }
+                throw new CloudException(failure);
+            }
+            List<VirtualMachine> vms = new ArrayList<VirtualMachine>();
+            for( Droplet droplet : awaitReadiness(created, getDefaultLaunchReadiness()) ) {
+                VirtualMachine vm = toVirtualMachine(droplet);
+                if( vm != null ) {
+                    vms.add(vm);
+                }
+            }
+            return vms;
+        }
+        finally {
             APITrace.end();
         }
     }
 
+    /**
+     * Waits until all the given droplets reach a readiness level. Each round looks up the droplets still waiting by
+     * id, which costs one request per droplet regardless of the size of the account (new droplets sit at the end of
+     * the droplet listing, so walking it would read the whole account every round). Droplets that cannot be looked
+     * up are kept as last seen and checked again in the next round.
+     * @param created the droplets as created
+     * @param readiness how far the droplets must have come
+     * @return the droplets as last seen
+     */
+    private @Nonnull Collection<Droplet> awaitReadiness(@Nonnull List<Droplet> created, @Nonnull LaunchReadiness readiness) {
+        Map<String, Droplet> droplets = new LinkedHashMap<String, Droplet>();
+        Set<String> waiting = new HashSet<String>();
+
+        for( Droplet droplet : created ) {
+            droplets.put(droplet.getId(), droplet);
+            if( !readiness.isReached(droplet) ) {
+                waiting.add(droplet.getId());
+            }
+        }
+        AdaptiveWait wait = new AdaptiveWait(LAUNCH_TIMEOUT);
+        try {
+            while( !waiting.isEmpty() && wait.pause() ) {
+                for( String id : new ArrayList<String>(waiting) ) {
+                    Droplet droplet = pollDroplet(id);
+                    if( droplet != null ) {
+                        droplets.put(id, droplet);
+                        if( readiness.isReached(droplet) ) {
+                            waiting.remove(id);
+                        }
+                    }
+                }
+            }
+        }
+        catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+        catch( InternalException e ) {
+            logger.warn("Stopped checking new droplets: " + e.getMessage());
+        }
+        if( !waiting.isEmpty() ) {
+            logger.warn(waiting.size() + " droplets did not reach " + readiness + " within " + wait.getElapsed() + "ms");
+        }
+        return droplets.values();
+    }
+
+    /**
+     * Looks up a droplet that is being launched. The droplet exists and is billed, so a failure here must not lose
+     * it: errors are logged and the caller keeps the droplet as last seen.
+     * @param dropletId the id of the droplet
+     * @return the droplet as it is now or null if it could not be looked up
+     * @throws InternalException the provider can no longer make requests
+     */
+    private @Nullable Droplet pollDroplet(@Nonnull String dropletId) throws InternalException {
+        try {
+            return (Droplet) DigitalOceanModelFactory.getModelById(getProvider(), org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLET, dropletId);
+        }
+        catch( CloudException e ) {
+            // e.g. a 404 while the new droplet propagates, or a transient server error
+            logger.debug("Unable to check new droplet " + dropletId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void record(@Nonnull LaunchTimings timings, @Nonnull Droplet droplet, long started) {
+        long elapsed = System.currentTimeMillis() - started;
+        if( timings.getNetworksAssigned() < 0 && LaunchReadiness.hasPublicAddress(droplet) ) {
+            timings.setNetworksAssigned(elapsed);
+        }
+        if( timings.getActive() < 0 && VmState.RUNNING.equals(droplet.getStatus()) ) {
+            timings.setActive(elapsed);
+        }
+    }
+
+    /**
+     * @return the readiness level launches wait for, as set by the {@code launchReadiness} custom property
+     */
+    public @Nonnull LaunchReadiness getDefaultLaunchReadiness() {
+        ProviderContext ctx = getProvider().getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+        return LaunchReadiness.fromString(p == null ? null : p.getProperty("launchReadiness"));
+    }
+
+    private @Nonnull Droplet createDroplet(@Nonnull VMLaunchOptions cfg) throws CloudException, InternalException {
+        String hostname = cfg.getHostName();
+        if( hostname == null ) {
+            throw new InternalException("No hostname defined  as part of launch options.");
+        }
+        return createDroplets(cfg, Collections.singletonList(hostname)).get(0);
+    }
+
+    /**
+     * Creates droplets configured as given, all in one request.
+     * @param cfg the launch configuration, its host name is ignored
+     * @param names the names of the droplets, at most {@link Create#MAX_NAMES}
+     * @return the new droplets
+     */
+    private @Nonnull List<Droplet> createDroplets(@Nonnull VMLaunchOptions cfg, @Nonnull List<String> names) throws CloudException, InternalException {
+        ProviderContext ctx = getProvider().getContext();
+        if( ctx == null ) {
+            throw new CloudException("No context was established for this request");
+        }
+        MachineImage img = getProvider().getComputeServices().getImageSupport().getMachineImage(cfg.getMachineImageId());
+        if( img == null ) {
+            throw new InternalException("No such machine image: " + cfg.getMachineImageId());
+        }
+
+        String product = cfg.getStandardProductId();
+        if( product == null ) {
+            throw new InternalException("No product defined as part of launch options.");
+        }
+
+        String regionId = cfg.getDataCenterId();         
+        if( regionId == null ) {
+        	if (ctx.getRegionId() != null) {
+        		regionId = ctx.getRegionId();
+        	} else {
+        		throw new InternalException("No region defined as part of launch options.");
+        	}
+        }
+
+        Map<String, Object> extraParams = null;
+        if(cfg.getUserData() != null && !cfg.getUserData().equals("")){
+            extraParams = new HashMap<String, Object>();
+            extraParams.put("user_data", cfg.getUserData());
+        }
+
+        return DigitalOceanModelFactory.createInstances(getProvider(), names, product, cfg.getMachineImageId(), regionId, cfg.getBootstrapKey(), extraParams);
+    }
+
     @Override
     public @Nonnull Iterable<ResourceStatus> listVirtualMachineStatus() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "listVirtualMachineStatus");
         try {
-            List<ResourceStatus> results = new ArrayList<ResourceStatus>();
-            Droplets droplets = (Droplets)DigitalOceanModelFactory.getModel(getProvider(), org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLETS );
-            int page = 1;
-            int total = droplets.getTotal();
-            while( droplets.getDroplets().size() > 0 ) {
-                for( Droplet d : droplets.getDroplets() ) {
-                    ResourceStatus status = toStatus(d);
-                    if( status != null ) {
-                        results.add(status);
-                    }
-                    else {
-                        total --;
-                    }
+            DropletInventory inventory = getProvider().getDropletInventory();
+            if( inventory.isEnabled() ) {
+                List<ResourceStatus> status = new ArrayList<ResourceStatus>();
+                for( Droplet d : inventory.list() ) {
+                    status.add(toStatus(d));
                 }
-                if( total <= 0 || total == results.size() ) {
-                    break;
-                }
-                droplets = (Droplets) getModel(getProvider(), DROPLETS, ++page);
+                return status;
             }
-            return results;
+            // pages are only fetched as the caller iterates, and only the id and status of each droplet are read
+            return new PagedIterable<Droplet, ResourceStatus>(getProvider(), DROPLETS, null, Projection.STATUS, Droplet.class) {
+                @Override
+                protected ResourceStatus convert(@Nonnull Droplet d) throws CloudException {
+                    return toStatus(d);
+                }
+            };
         } finally {
             APITrace.end();
         }
     }
 
+    /**
+     * Creates a poller reporting only the droplets whose status changed between two sweeps, for callers that
+     * would otherwise call {@link #listVirtualMachineStatus()} over and over and compare the results themselves.
+     * @return a new sweep, its first call reports every droplet
+     */
+    public @Nonnull DropletStatusSweep newStatusSweep() {
+        return new DropletStatusSweep(getProvider());
+    }
+
     @Override
     public @Nonnull Iterable<VirtualMachine> listVirtualMachines() throws InternalException, CloudException {
         return listVirtualMachines(null);
     }
 
     @Override
-    public @Nonnull Iterable<VirtualMachine> listVirtualMachines(@Nullable VMFilterOptions options) throws InternalException, CloudException {
+    public @Nonnull Iterable<VirtualMachine> listVirtualMachines(final @Nullable VMFilterOptions options) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "listVirtualMachines");
         try {
-            List<VirtualMachine> results = new ArrayList<VirtualMachine>();
+            final String regionId = getContext().getRegionId();
+            DropletInventory inventory = getProvider().getDropletInventory();
 
-            Droplets droplets = (Droplets) DigitalOceanModelFactory.getModel(getProvider(), DROPLETS);
-            int page = 1;
-            int total = droplets.getTotal();
-            while( droplets.getDroplets().size() > 0 ) {
-                for( Droplet d : droplets.getDroplets() ) {
+            if( inventory.isEnabled() ) {
+                List<VirtualMachine> vms = new ArrayList<VirtualMachine>();
+                for( Droplet d : inventory.list() ) {
                     VirtualMachine vm = toVirtualMachine(d);
-                    if( (options == null || options.matches(vm)) &&
-                            vm.getProviderRegionId().equalsIgnoreCase(getContext().getRegionId()) ) {
-                        results.add(vm);
-                    }
-                    else {
-                        total --;
+                    if( (options == null || options.matches(vm)) && vm.getProviderRegionId().equalsIgnoreCase(regionId) ) {
+                        vms.add(vm);
                     }
                 }
-                if( total <= 0 || total == results.size() ) {
-                    break;
-                }
-                droplets = (Droplets) getModel(getProvider(), DROPLETS, ++page);
-
+                return vms;
             }
-            return results;
+            // pages are only fetched as the caller iterates, and only droplets carrying a filtered tag are listed
+            return new PagedIterable<Droplet, VirtualMachine>(getProvider(), DROPLETS, getTagQuery(options), Projection.INSTANCE, Droplet.class) {
+                @Override
+                protected VirtualMachine convert(@Nonnull Droplet d) throws CloudException, InternalException {
+                    VirtualMachine vm = toVirtualMachine(d);
+                    if( (options == null || options.matches(vm)) &&
+                            vm.getProviderRegionId().equalsIgnoreCase(regionId) ) {
+                        return vm;
+                    }
+                    return null;
+                }
+            };
         } finally {
             APITrace.end();
         }
@@ -388,13 +736,14 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
         APITrace.begin(getProvider(), "stopVM");
         try {
             waitForAllDropletEventsToComplete(instanceId, 5);
-            VirtualMachine vm = getVirtualMachine(instanceId);
+            VirtualMachine vm = getVirtualMachine(instanceId, true);
             if( vm == null ) {
                 throw new CloudException("No such instance: " + instanceId);
             }
             // only stop if droplet is running, otherwise DO will give us an error
             if( VmState.RUNNING.equals(vm.getCurrentState() ) ) {
                 DigitalOceanModelFactory.performAction(getProvider(), new Stop(), instanceId);
+                getProvider().getDropletInventory().touch(instanceId);
             }
         } finally {
             APITrace.end();
@@ -405,13 +754,14 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
     public void reboot(@Nonnull String instanceId) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "rebootVM");
         try {
-            VirtualMachine vm = getVirtualMachine(instanceId);
+            VirtualMachine vm = getVirtualMachine(instanceId, true);
             if( vm == null ) {
                 throw new CloudException("No such instance: " + instanceId);
             }
             // only reboot if droplet is running, otherwise DO will give us an error
             if( VmState.RUNNING.equals(vm.getCurrentState() ) ) {
                 DigitalOceanModelFactory.performAction(getProvider(), new Reboot(), instanceId);
+                getProvider().getDropletInventory().touch(instanceId);
             }
         } finally {
             APITrace.end();
@@ -422,15 +772,532 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
     public void terminate(@Nonnull String instanceId, @Nullable String explanation) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "terminateVM");
         try {
-            if( getVirtualMachine(instanceId) == null ) {
+            if( getVirtualMachine(instanceId, true) == null ) {
               throw new CloudException("No such instance found: " + instanceId);
             }
             DigitalOceanModelFactory.performAction(getProvider(), new Destroy(), instanceId);
+            getProvider().getDropletInventory().touch(instanceId);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public void updateTags(@Nonnull String vmId, @Nonnull Tag... tags) throws CloudException, InternalException {
+        updateTags(new String[]{vmId}, tags);
+    }
+
+    /**
+     * Sets tags on droplets. DigitalOcean tags are plain names, a Dasein tag is stored as {@code key:value} (or just
+     * {@code key} when it has no value) and replaces any value the droplets held for the same key. Each tag is
+     * applied to all droplets with a single request.
+     */
+    @Override
+    public void updateTags(@Nonnull String[] vmIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "updateVMTags");
+        try {
+            List<String> names = new ArrayList<String>();
+            for( Tag tag : tags ) {
+                names.add(toTagName(tag));
+            }
+            // the values being replaced
+            Map<String, List<String>> stale = getTagsToRemove(vmIds, tags, true);
+            for( Map.Entry<String, List<String>> entry : stale.entrySet() ) {
+                DigitalOceanModelFactory.untagDroplets(getProvider(), entry.getKey(), toArray(entry.getValue()));
+            }
+            for( String name : names ) {
+                DigitalOceanModelFactory.tagDroplets(getProvider(), name, vmIds);
+            }
+            // tagging does not show up in the action feed
+            getProvider().getDropletInventory().touch(vmIds);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public void removeTags(@Nonnull String vmId, @Nonnull Tag... tags) throws CloudException, InternalException {
+        removeTags(new String[]{vmId}, tags);
+    }
+
+    /**
+     * Removes tags from droplets. A tag without a value removes whatever value the droplets hold for its key.
+     */
+    @Override
+    public void removeTags(@Nonnull String[] vmIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "removeVMTags");
+        try {
+            Map<String, List<String>> matching = getTagsToRemove(vmIds, tags, false);
+            for( Map.Entry<String, List<String>> entry : matching.entrySet() ) {
+                DigitalOceanModelFactory.untagDroplets(getProvider(), entry.getKey(), toArray(entry.getValue()));
+            }
+            getProvider().getDropletInventory().touch(vmIds);
         } finally {
             APITrace.end();
         }
     }
 
+    /**
+     * Looks up which tags of the droplets share a key with the given tags.
+     * @param vmIds the droplets to look at
+     * @param tags the tags whose keys to look for
+     * @param replacing true to collect the other values of the keys (the tags are being set), false to collect the
+     * tags themselves or any value of the keys given without one (the tags are being removed)
+     * @return the droplets to untag, by tag name
+     */
+    private @Nonnull Map<String, List<String>> getTagsToRemove(@Nonnull String[] vmIds, @Nonnull Tag[] tags, boolean replacing) throws CloudException, InternalException {
+        Map<String, List<String>> result = new HashMap<String, List<String>>();
+
+        for( String vmId : vmIds ) {
+            Droplet droplet = DigitalOceanModelFactory.getDropletByInstance(getProvider(), vmId);
+            if( droplet == null ) {
+                throw new CloudException("No such instance: " + vmId);
+            }
+            if( droplet.getTags() == null ) {
+                continue;
+            }
+            for( String name : droplet.getTags() ) {
+                String key = getTagKey(name);
+                for( Tag tag : tags ) {
+                    if( !key.equals(tag.getKey()) ) {
+                        continue;
+                    }
+                    boolean same = name.equals(toTagName(tag));
+                    boolean anyValue = (tag.getValue() == null || tag.getValue().isEmpty());
+                    if( replacing ? !same : (same || anyValue) ) {
+                        List<String> ids = result.get(name);
+                        if( ids == null ) {
+                            ids = new ArrayList<String>();
+                            result.put(name, ids);
+                        }
+                        ids.add(vmId);
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    static private @Nonnull String[] toArray(@Nonnull List<String> values) {
+        return values.toArray(new String[values.size()]);
+    }
+
+    /**
+     * Maps a Dasein tag onto a DigitalOcean tag name.
+     * @param tag the tag
+     * @return {@code key:value}, or {@code key} when the tag has no value
+     * @throws CloudException the tag cannot be stored as a DigitalOcean tag
+     */
+    static private @Nonnull String toTagName(@Nonnull Tag tag) throws CloudException {
+        String key = tag.getKey();
+        String value = tag.getValue();
+
+        if( key == null || key.indexOf(':') > -1 ) {
+            throw new CloudException("Invalid tag key: " + key);
+        }
+        String name = (value == null || value.isEmpty() ? key : key + ":" + value);
+        if( !isValidTagName(name) ) {
+            throw new CloudException("DigitalOcean tags may only contain letters, numbers, colons, dashes and underscores: " + name);
+        }
+        return name;
+    }
+
+    static private boolean isValidTagName(@Nonnull String name) {
+        if( name.isEmpty() || name.length() > MAX_TAG_NAME_LENGTH ) {
+            return false;
+        }
+        for( int i = 0; i < name.length(); i++ ) {
+            char c = name.charAt(i);
+            if( !(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9') && c != ':' && c != '-' && c != '_' ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static private @Nonnull String getTagKey(@Nonnull String tagName) {
+        int idx = tagName.indexOf(':');
+        return (idx < 0 ? tagName : tagName.substring(0, idx));
+    }
+
+    static private @Nonnull String getTagValue(@Nonnull String tagName) {
+        int idx = tagName.indexOf(':');
+        return (idx < 0 ? "" : tagName.substring(idx + 1));
+    }
+
+    /**
+     * Picks a tag of the filter DigitalOcean can select droplets by, so that only those are listed. The rest of the
+     * filter is still applied to the droplets returned.
+     * @param options the filter
+     * @return the {@code tag_name} query parameter or null if the whole account has to be listed
+     */
+    static private @Nullable String getTagQuery(@Nullable VMFilterOptions options) throws InternalException {
+        if( options == null || options.isMatchesAny() || options.getTags() == null ) {
+            return null;
+        }
+        for( Map.Entry<String, String> entry : options.getTags().entrySet() ) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if( key == null || key.indexOf(':') > -1 ) {
+                continue;
+            }
+            String name = (value == null || value.isEmpty() ? key : key + ":" + value);
+            // valid names hold no pattern characters, so they select exactly what the filter matches
+            if( isValidTagName(name) ) {
+                try {
+                    return "tag_name=" + URLEncoder.encode(name, "UTF-8");
+                } catch( UnsupportedEncodingException e ) {
+                    throw new InternalException(e);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Powers on every droplet carrying a tag with a single request.
+     * @param tagName the tag of the droplets to start
+     * @return one action per droplet, see {@link org.dasein.cloud.digitalocean.models.rest.ActionTracker#trackAll}
+     * to follow them
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public @Nonnull List<Action> startByTag(@Nonnull String tagName) throws CloudException, InternalException {
+        return performTagAction("startVMsByTag", new Start(), tagName);
+    }
+
+    /**
+     * Powers off every droplet carrying a tag with a single request.
+     * @param tagName the tag of the droplets to stop
+     * @return one action per droplet
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public @Nonnull List<Action> stopByTag(@Nonnull String tagName) throws CloudException, InternalException {
+        return performTagAction("stopVMsByTag", new Stop(), tagName);
+    }
+
+    /**
+     * Gracefully shuts down every droplet carrying a tag with a single request.
+     * @param tagName the tag of the droplets to shut down
+     * @return one action per droplet
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public @Nonnull List<Action> shutdownByTag(@Nonnull String tagName) throws CloudException, InternalException {
+        return performTagAction("shutdownVMsByTag", new Shutdown(), tagName);
+    }
+
+    /**
+     * Snapshots every droplet carrying a tag with a single request.
+     * @param tagName the tag of the droplets to snapshot
+     * @param snapshotName the name of the snapshots
+     * @return one action per droplet
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public @Nonnull List<Action> snapshotByTag(@Nonnull String tagName, @Nonnull String snapshotName) throws CloudException, InternalException {
+        return performTagAction("snapshotVMsByTag", new Snapshot(snapshotName), tagName);
+    }
+
+    private @Nonnull List<Action> performTagAction(@Nonnull String operation, @Nonnull DigitalOceanPostAction action, @Nonnull String tagName) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), operation);
+        try {
+            List<Action> actions = DigitalOceanModelFactory.performTagAction(getProvider(), new Tagged(action), tagName);
+            for( Action a : actions ) {
+                if( "droplet".equals(a.getResourceType()) && a.getResourceId() != null ) {
+                    getProvider().getDropletInventory().touch(a.getResourceId());
+                }
+            }
+            return actions;
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public @Nonnull Future<VirtualMachine> launchAsync(@Nonnull final VMLaunchOptions cfg, @Nullable FutureCallback<VirtualMachine> callback) {
+        final BasicFuture<VirtualMachine> result = new BasicFuture<VirtualMachine>(callback);
+        final DigitalOcean provider = getProvider();
+
+        try {
+            provider.getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    if( result.isDone() ) {
+                        return;
+                    }
+                    try {
+                        final LaunchReadiness readiness = getDefaultLaunchReadiness();
+                        Droplet droplet = createDroplet(cfg);
+                        provider.getDropletInventory().touch(droplet.getId());
+                        if( readiness.isReached(droplet) ) {
+                            result.completed(toVirtualMachine(droplet));
+                            return;
+                        }
+                        pollUntil(result, org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLET, droplet.getId(), new Check() {
+                            @Override
+                            public boolean isReached(@Nonnull DigitalOceanRestModel model) {
+                                return readiness.isReached((Droplet) model);
+                            }
+                        }, new AdaptiveWait(LAUNCH_TIMEOUT), new Step<DigitalOceanRestModel>(result) {
+                            @Override
+                            protected void next(@Nonnull DigitalOceanRestModel model) throws Exception {
+                                result.completed(toVirtualMachine((Droplet) model));
+                            }
+                        });
+                    }
+                    catch( Exception e ) {
+                        result.failed(e);
+                    }
+                }
+            });
+        }
+        catch( RejectedExecutionException e ) {
+            result.failed(e);
+        }
+        return result;
+    }
+
+    @Override
+    public @Nonnull Future<Void> startAsync(@Nonnull String vmId, @Nullable FutureCallback<Void> callback) {
+        return performActionAsync(vmId, new Start(), VmState.STOPPED, callback);
+    }
+
+    @Override
+    public @Nonnull Future<Void> stopAsync(@Nonnull String vmId, boolean force, @Nullable FutureCallback<Void> callback) {
+        return performActionAsync(vmId, new Stop(), VmState.RUNNING, callback);
+    }
+
+    @Override
+    public @Nonnull Future<Void> rebootAsync(@Nonnull String vmId, @Nullable FutureCallback<Void> callback) {
+        return performActionAsync(vmId, new Reboot(), VmState.RUNNING, callback);
+    }
+
+    @Override
+    public @Nonnull Future<Void> terminateAsync(@Nonnull String vmId, @Nullable String explanation, @Nullable FutureCallback<Void> callback) {
+        // a destroyed droplet is gone as soon as the request is accepted, there is no action to follow
+        return performActionAsync(vmId, new Destroy(), null, callback);
+    }
+
+    @Override
+    public @Nonnull Future<VirtualMachine> alterVirtualMachineProductAsync(@Nonnull final String vmId, @Nonnull final String productId, @Nullable FutureCallback<VirtualMachine> callback) {
+        final BasicFuture<VirtualMachine> result = new BasicFuture<VirtualMachine>(callback);
+        final DigitalOcean provider = getProvider();
+        final org.dasein.cloud.digitalocean.models.rest.DigitalOcean droplet = org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLET;
+
+        DigitalOceanAsyncModelFactory.getModelByIdAsync(provider, droplet, vmId, new Step<DigitalOceanRestModel>(result) {
+            @Override
+            protected void next(@Nonnull DigitalOceanRestModel model) throws Exception {
+                VirtualMachine vm = toVirtualMachine((Droplet) model);
+
+                if( vm == null ) {
+                    throw new CloudException("No such instance: " + vmId);
+                }
+                if( !getCapabilities().canAlter(vm.getCurrentState()) ) {
+                    throw new CloudException("Droplet is currently " + vm.getCurrentState() + ". Please power it off to run this event.");
+                }
+                if( productId.equals(vm.getProductId()) ) {
+                    throw new CloudException("Product Id must differ from current vm product id");
+                }
+                DigitalOceanAsyncModelFactory.performActionAsync(provider, new Resize(productId), vmId, new ActionStep(result, vmId) {
+                    @Override
+                    protected void done() {
+                        DigitalOceanAsyncModelFactory.getModelByIdAsync(provider, droplet, vmId, new Step<DigitalOceanRestModel>(result) {
+                            @Override
+                            protected void next(@Nonnull DigitalOceanRestModel model) throws Exception {
+                                result.completed(toVirtualMachine((Droplet) model));
+                            }
+                        });
+                    }
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Performs an action on a droplet if it is in the required state, and follows the action until it is done.
+     * @param vmId the droplet to act on
+     * @param action the action to perform
+     * @param requiredState the state the droplet must be in for the action to make sense, null if any will do
+     * @param callback notified of the outcome, may be null
+     * @return a future completed once the action is done
+     */
+    private @Nonnull Future<Void> performActionAsync(@Nonnull final String vmId, @Nonnull final DigitalOceanAction action, @Nullable final VmState requiredState, @Nullable FutureCallback<Void> callback) {
+        final BasicFuture<Void> result = new BasicFuture<Void>(callback);
+        final DigitalOcean provider = getProvider();
+
+        DigitalOceanAsyncModelFactory.getModelByIdAsync(provider, org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLET, vmId, new Step<DigitalOceanRestModel>(result) {
+            @Override
+            protected void next(@Nonnull DigitalOceanRestModel model) {
+                if( requiredState != null && !requiredState.equals(((Droplet) model).getStatus()) ) {
+                    // DO would give us an error, the droplet is already where the action would take it
+                    result.completed(null);
+                    return;
+                }
+                DigitalOceanAsyncModelFactory.performActionAsync(provider, action, vmId, new ActionStep(result, vmId) {
+                    @Override
+                    protected void done() {
+                        result.completed(null);
+                    }
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Polls a model until it reaches the expected condition, paced by the given wait; no thread is held between
+     * polls.
+     * @param result the future of the whole operation, polling stops once it is done
+     * @param model the kind of model to poll
+     * @param id the id of the model to poll
+     * @param check tells if the model reached the expected condition
+     * @param pacing the delays between polls and the deadline of the operation
+     * @param then notified with the model once it reaches the condition
+     */
+    private void pollUntil(@Nonnull final BasicFuture<?> result, @Nonnull final org.dasein.cloud.digitalocean.models.rest.DigitalOcean model, @Nonnull final String id, @Nonnull final Check check, @Nonnull final AdaptiveWait pacing, @Nonnull final FutureCallback<DigitalOceanRestModel> then) {
+        if( result.isDone() ) {
+            return;
+        }
+        if( pacing.isExpired() ) {
+            result.failed(new CloudException("Timed out after " + pacing.getElapsed() + "ms waiting for " + model.name().toLowerCase() + " " + id));
+            return;
+        }
+        final DigitalOcean provider = getProvider();
+        try {
+            provider.getScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    DigitalOceanAsyncModelFactory.getModelByIdAsync(provider, model, id, new Step<DigitalOceanRestModel>(result) {
+                        @Override
+                        protected void next(@Nonnull DigitalOceanRestModel value) throws Exception {
+                            if( check.isReached(value) ) {
+                                if( logger.isDebugEnabled() ) {
+                                    logger.debug("Waited " + pacing.getElapsed() + "ms for " + model.name().toLowerCase() + " " + id);
+                                }
+                                then.completed(value);
+                            }
+                            else {
+                                pollUntil(result, model, id, check, pacing, then);
+                            }
+                        }
+                    });
+                }
+            }, pacing.nextDelay(), TimeUnit.MILLISECONDS);
+        }
+        catch( RejectedExecutionException e ) {
+            result.failed(e);
+        }
+    }
+
+    private interface Check {
+        boolean isReached(@Nonnull DigitalOceanRestModel model) throws CloudException;
+    }
+
+    /**
+     * One step of an asynchronous operation. Failures and cancellation are handed on to the future of the whole
+     * operation, as is any exception thrown by the step itself.
+     * @param <S> the result of the previous step
+     */
+    private static abstract class Step<S> implements FutureCallback<S> {
+        private final BasicFuture<?> result;
+
+        Step(@Nonnull BasicFuture<?> result) {
+            this.result = result;
+        }
+
+        protected abstract void next(@Nonnull S value) throws Exception;
+
+        @Override
+        public void completed(S value) {
+            if( result.isDone() ) {
+                return;
+            }
+            try {
+                next(value);
+            }
+            catch( Exception e ) {
+                result.failed(e);
+            }
+        }
+
+        @Override
+        public void failed(Exception e) {
+            result.failed(e);
+        }
+
+        @Override
+        public void cancelled() {
+            result.cancel(true);
+        }
+    }
+
+    /**
+     * Follows the action returned by a droplet action request, through the provider's
+     * {@link org.dasein.cloud.digitalocean.models.rest.ActionTracker}, until DigitalOcean reports it as done.
+     */
+    private abstract class ActionStep implements FutureCallback<Action> {
+        private final BasicFuture<?> result;
+        private final String         vmId;
+
+        ActionStep(@Nonnull BasicFuture<?> result, @Nonnull String vmId) {
+            this.result = result;
+            this.vmId = vmId;
+        }
+
+        /**
+         * Called once the action completed successfully.
+         */
+        protected abstract void done() throws Exception;
+
+        @Override
+        public void completed(@Nullable Action action) {
+            if( result.isDone() ) {
+                return;
+            }
+            try {
+                if( action == null || action.isComplete() ) {
+                    finish(action);
+                    return;
+                }
+                getProvider().getActionTracker().track(action, new Step<Action>(result) {
+                    @Override
+                    protected void next(@Nonnull Action done) throws Exception {
+                        finish(done);
+                    }
+                });
+            }
+            catch( Exception e ) {
+                result.failed(e);
+            }
+        }
+
+        private void finish(@Nullable Action action) throws Exception {
+            // whatever the outcome, the droplet is no longer as the inventory last saw it
+            getProvider().getDropletInventory().touch(vmId);
+            if( action != null && action.isError() ) {
+                result.failed(new CloudException("Action " + action.getType() + " errored on droplet " + vmId));
+            }
+            else {
+                done();
+            }
+        }
+
+        @Override
+        public void failed(Exception e) {
+            result.failed(e);
+        }
+
+        @Override
+        public void cancelled() {
+            result.cancel(true);
+        }
+    }
+
     private @Nullable ResourceStatus toStatus(@Nullable Droplet instance) throws CloudException {
         if( instance == null ) {
             return null;
@@ -518,6 +1385,11 @@ public class DOInstance extends AbstractVMSupport<DigitalOcean> {
             server.setPrivateAddresses(privateAddresses.toArray(new RawAddress[privateAddresses.size()]));
             server.setPublicAddresses(publicAddresses.toArray(new RawAddress[publicAddresses.size()]));
         }
+        if( instance.getTags() != null ) {
+            for( String tag : instance.getTags() ) {
+                server.setTag(getTagKey(tag), getTagValue(tag));
+            }
+        }
         return server;
     }
 
@@ -0,0 +1,364 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.compute;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.digitalocean.DigitalOcean;
+import org.dasein.cloud.digitalocean.models.Action;
+import org.dasein.cloud.digitalocean.models.Actions;
+import org.dasein.cloud.digitalocean.models.Droplet;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanModelFactory;
+import org.dasein.cloud.digitalocean.models.rest.PagedIterable;
+import org.dasein.cloud.digitalocean.models.rest.Projection;
+import org.dasein.cloud.util.APITrace;
+import org.dasein.util.JiteratorLoadException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.dasein.cloud.digitalocean.models.rest.DigitalOcean.ACTIONS;
+import static org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLETS;
+
+/**
+ * A local view of the droplets of an account, loaded in full once and then kept current from the {@code v2/actions}
+ * feed: every action newer than the last one seen has its droplet fetched again (or dropped once DigitalOcean no
+ * longer knows it), everything else is left as it is. {@link DOInstance} serves its droplet listings and lookups
+ * from this view when it is enabled.
+ * <p>The view is tuned through the following custom properties of the provider context:</p>
+ * <ul>
+ *     <li>{@code inventoryStaleness} - seconds the view may be served without checking the feed; the inventory is
+ *     disabled unless this is set</li>
+ *     <li>{@code inventoryResync} - seconds between full reloads (default {@value #DEFAULT_RESYNC})</li>
+ * </ul>
+ * <p>Not everything shows up in the feed (tags, for one), so the view is reloaded in full periodically, when the
+ * feed cannot be followed back to the last action seen, and after {@link #invalidate()}. Actions still in progress
+ * are read again on every check until they are done, so a droplet is fetched once more after its state settled.</p>
+ */
+public class DropletInventory {
+    static private final Logger logger = Logger.getLogger(DropletInventory.class);
+
+    static public final int DEFAULT_RESYNC = 900;
+
+    /**
+     * The most pages of the feed walked by one check, a busier feed is taken as a gap.
+     */
+    static final int MAX_PAGES = 5;
+
+    /**
+     * Where the view reads the account from.
+     */
+    interface Feed {
+        /**
+         * @return the newest action of the account, null if there is none
+         * @throws CloudException an error occurred in the cloud provider
+         * @throws InternalException an error occurred within Dasein Cloud
+         */
+        @Nullable Action newest() throws CloudException, InternalException;
+
+        /**
+         * @param page the page of the action feed, newest first, starting at 1
+         * @return the actions on the page
+         * @throws CloudException an error occurred in the cloud provider
+         * @throws InternalException an error occurred within Dasein Cloud
+         */
+        @Nonnull Actions actions(int page) throws CloudException, InternalException;
+
+        /**
+         * @return every droplet of the account
+         * @throws CloudException an error occurred in the cloud provider
+         * @throws InternalException an error occurred within Dasein Cloud
+         */
+        @Nonnull Iterable<Droplet> droplets() throws CloudException, InternalException;
+
+        /**
+         * @param dropletId the id of the droplet
+         * @return the droplet or null if DigitalOcean no longer knows it
+         * @throws CloudException an error occurred in the cloud provider
+         * @throws InternalException an error occurred within Dasein Cloud
+         */
+        @Nullable Droplet droplet(@Nonnull String dropletId) throws CloudException, InternalException;
+    }
+
+    /**
+     * Reads the account through the DigitalOcean API.
+     */
+    static private final class ApiFeed implements Feed {
+        private final DigitalOcean provider;
+
+        private ApiFeed(@Nonnull DigitalOcean provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public @Nullable Action newest() throws CloudException, InternalException {
+            // only the position of the feed is needed, not a full page of it
+            Actions actions = (Actions) DigitalOceanModelFactory.getModel(provider, ACTIONS, "per_page=1", 1);
+
+            return (actions.getActions().isEmpty() ? null : actions.getActions().get(0));
+        }
+
+        @Override
+        public @Nonnull Actions actions(int page) throws CloudException, InternalException {
+            return (Actions) DigitalOceanModelFactory.getModel(provider, ACTIONS, page);
+        }
+
+        @Override
+        public @Nonnull Iterable<Droplet> droplets() throws CloudException, InternalException {
+            return PagedIterable.of(provider, DROPLETS, Projection.INSTANCE, Droplet.class);
+        }
+
+        @Override
+        public @Nullable Droplet droplet(@Nonnull String dropletId) throws CloudException, InternalException {
+            try {
+                return DigitalOceanModelFactory.getDropletByInstance(provider, dropletId);
+            }
+            catch( CloudException e ) {
+                if( e.getHttpCode() == HttpServletResponse.SC_NOT_FOUND ) {
+                    return null;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private final DigitalOcean provider;
+    private final Feed         feed;
+    private final long         staleness;
+    private final long         resyncInterval;
+
+    private final Map<String, Droplet> droplets = new LinkedHashMap<String, Droplet>();
+    private final Set<String>          touched  = new HashSet<String>();
+    private long    lastActionId;
+    private long    lastCheck;
+    private long    lastLoad;
+    private boolean loaded;
+
+    public DropletInventory(@Nonnull DigitalOcean provider) {
+        this(provider, provider.getIntProperty("inventoryStaleness", 0) * 1000L, provider.getIntProperty("inventoryResync", DEFAULT_RESYNC) * 1000L, new ApiFeed(provider));
+    }
+
+    DropletInventory(DigitalOcean provider, long staleness, long resyncInterval, @Nonnull Feed feed) {
+        this.provider = provider;
+        this.staleness = staleness;
+        this.resyncInterval = resyncInterval;
+        this.feed = feed;
+    }
+
+    /**
+     * @return true if droplet queries should be served from this view
+     */
+    public boolean isEnabled() {
+        return (staleness > 0);
+    }
+
+    /**
+     * Lists the droplets of the account, no older than the staleness bound.
+     * @return the droplets as of the last check
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public synchronized @Nonnull List<Droplet> list() throws CloudException, InternalException {
+        refresh();
+        return new ArrayList<Droplet>(droplets.values());
+    }
+
+    /**
+     * Looks up a droplet, no older than the staleness bound. A droplet the view does not know yet (e.g. created
+     * since the last check) is fetched directly and added to the view.
+     * @param dropletId the id of the droplet
+     * @return the droplet or null if there is no such droplet
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public synchronized @Nullable Droplet get(@Nonnull String dropletId) throws CloudException, InternalException {
+        refresh();
+        Droplet droplet = droplets.get(dropletId);
+
+        if( droplet == null ) {
+            droplet = feed.droplet(dropletId);
+            if( droplet != null ) {
+                droplets.put(dropletId, droplet);
+            }
+        }
+        return droplet;
+    }
+
+    /**
+     * Marks droplets changed by means the action feed does not report, they are fetched again on the next query.
+     * @param dropletIds the ids of the droplets
+     */
+    public synchronized void touch(@Nonnull String... dropletIds) {
+        if( !isEnabled() ) {
+            return;
+        }
+        Collections.addAll(touched, dropletIds);
+        lastCheck = 0;
+    }
+
+    /**
+     * Drops the view, the next query reloads it in full.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+    }
+
+    private void refresh() throws CloudException, InternalException {
+        long now = System.currentTimeMillis();
+
+        if( loaded && now - lastCheck < staleness ) {
+            return;
+        }
+        APITrace.begin(provider, "refreshDropletInventory");
+        try {
+            check(now);
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Brings the view up to date, following the feed or reloading it in full, whatever its staleness.
+     * @param now the time of the check
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    synchronized void check(long now) throws CloudException, InternalException {
+        if( !loaded || now - lastLoad >= resyncInterval || !follow() ) {
+            load();
+        }
+        lastCheck = now;
+    }
+
+    /**
+     * Reloads every droplet. The feed position is taken first, so anything happening during the reload is replayed
+     * by the next check.
+     */
+    private void load() throws CloudException, InternalException {
+        long started = System.currentTimeMillis();
+        Action action = feed.newest();
+        long newest = (action == null ? 0 : toNumber(action.getId()));
+        Map<String, Droplet> current = new LinkedHashMap<String, Droplet>();
+
+        try {
+            for( Droplet droplet : feed.droplets() ) {
+                current.put(droplet.getId(), droplet);
+            }
+        }
+        catch( JiteratorLoadException e ) {
+            Throwable cause = e.getCause();
+
+            if( cause instanceof CloudException ) {
+                throw (CloudException) cause;
+            }
+            else if( cause instanceof InternalException ) {
+                throw (InternalException) cause;
+            }
+            throw new InternalException(cause);
+        }
+        droplets.clear();
+        droplets.putAll(current);
+        touched.clear();
+        lastActionId = newest;
+        lastLoad = started;
+        loaded = true;
+        if( logger.isDebugEnabled() ) {
+            logger.debug("Loaded " + droplets.size() + " droplets as of action " + lastActionId);
+        }
+    }
+
+    /**
+     * Applies the actions newer than the last one seen.
+     * @return false if the feed could not be followed back to the last action seen
+     */
+    private boolean follow() throws CloudException, InternalException {
+        Set<String> changed = new HashSet<String>(touched);
+        long newest = lastActionId;
+        // actions in progress are read again until they are done
+        long unsettled = Long.MAX_VALUE;
+        boolean reached = false;
+        int page = 1;
+
+        while( !reached ) {
+            if( page > MAX_PAGES ) {
+                logger.debug("Too many actions since " + lastActionId + ", reloading the droplet inventory");
+                return false;
+            }
+            Actions actions = feed.actions(page);
+
+            for( Action action : actions.getActions() ) {
+                long id = toNumber(action.getId());
+
+                if( id <= lastActionId ) {
+                    // the listing is newest first, everything from here on was applied before
+                    reached = true;
+                    break;
+                }
+                newest = Math.max(newest, id);
+                if( !action.isComplete() ) {
+                    unsettled = Math.min(unsettled, id);
+                }
+                if( "droplet".equals(action.getResourceType()) && action.getResourceId() != null ) {
+                    changed.add(action.getResourceId());
+                }
+            }
+            if( actions.getActions().isEmpty() || page * actions.getActions().size() >= actions.getTotal() ) {
+                // the whole feed was read
+                reached = true;
+            }
+            page++;
+        }
+        for( String dropletId : changed ) {
+            Droplet droplet = feed.droplet(dropletId);
+
+            if( droplet == null ) {
+                droplets.remove(dropletId);
+            }
+            else {
+                droplets.put(dropletId, droplet);
+            }
+        }
+        touched.clear();
+        lastActionId = (unsettled == Long.MAX_VALUE ? newest : unsettled - 1);
+        if( logger.isDebugEnabled() && !changed.isEmpty() ) {
+            logger.debug("Refreshed " + changed.size() + " droplets up to action " + newest);
+        }
+        return true;
+    }
+
+    static private long toNumber(@Nullable String id) {
+        try {
+            return (id == null ? 0 : Long.parseLong(id));
+        }
+        catch( NumberFormatException e ) {
+            return 0;
+        }
+    }
+}
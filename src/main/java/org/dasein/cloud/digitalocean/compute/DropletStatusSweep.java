@@ -0,0 +1,264 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.compute;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ResourceStatus;
+import org.dasein.cloud.compute.VmState;
+import org.dasein.cloud.digitalocean.DigitalOcean;
+import org.dasein.cloud.digitalocean.models.Droplet;
+import org.dasein.cloud.digitalocean.models.rest.PagedIterable;
+import org.dasein.cloud.digitalocean.models.rest.Projection;
+import org.dasein.cloud.util.APITrace;
+import org.dasein.util.JiteratorLoadException;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.dasein.cloud.digitalocean.models.rest.DigitalOcean.DROPLETS;
+
+/**
+ * Polls the status of every droplet in the account and reports only what changed since the previous sweep. Meant
+ * for callers that poll {@link DOInstance#listVirtualMachineStatus()} on a short interval: the droplets are read
+ * under {@link Projection#STATUS} and only their ids and states are kept, in open addressed primitive tables, so a
+ * sweep holds no objects per droplet once a page has been read.
+ * <p>The first sweep reports every droplet. Following sweeps report the droplets that appeared or changed state,
+ * and the droplets that are gone as {@link VmState#TERMINATED}. A droplet is only reported gone once it was missed
+ * by {@value #MISSES_BEFORE_GONE} sweeps in a row, since pages shift while a listing is walked and a droplet
+ * deleted on an earlier page can push another one out of sight for a sweep.</p>
+ * <p>A sweep that fails half way leaves the state of the previous sweep untouched, so the next one reports the
+ * changes of both. Sweeps are serialized, each caller interested in its own changes should hold its own instance,
+ * see {@link DOInstance#newStatusSweep()}.</p>
+ */
+public class DropletStatusSweep {
+    static private final Logger logger = Logger.getLogger(DropletStatusSweep.class);
+
+    static public final int MISSES_BEFORE_GONE = 2;
+
+    static private final VmState[] STATES = VmState.values();
+
+    private final DigitalOcean provider;
+    private StatusTable previous = new StatusTable(16);
+    private StatusTable current  = new StatusTable(16);
+    private boolean     swept;
+
+    DropletStatusSweep(@Nonnull DigitalOcean provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Lists the droplets and compares them against the previous sweep.
+     * @return the droplets that appeared, changed state or are gone since the previous sweep
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public synchronized @Nonnull List<ResourceStatus> sweep() throws CloudException, InternalException {
+        APITrace.begin(provider, "sweepVirtualMachineStatus");
+        try {
+            return update(PagedIterable.of(provider, DROPLETS, Projection.STATUS, Droplet.class));
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Compares a listing of the droplets against the previous sweep.
+     * @param droplets every droplet of the account
+     * @return the droplets that appeared, changed state or are gone since the previous sweep
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    synchronized @Nonnull List<ResourceStatus> update(@Nonnull Iterable<Droplet> droplets) throws CloudException, InternalException {
+        current.clear();
+        try {
+            for( Droplet droplet : droplets ) {
+                long id = toId(droplet.getId());
+
+                if( id > 0 ) {
+                    current.put(id, toCode(droplet.getStatus()), (byte) 0);
+                }
+            }
+        }
+        catch( JiteratorLoadException e ) {
+            Throwable cause = e.getCause();
+
+            if( cause instanceof CloudException ) {
+                throw (CloudException) cause;
+            }
+            else if( cause instanceof InternalException ) {
+                throw (InternalException) cause;
+            }
+            throw new InternalException(cause);
+        }
+        List<ResourceStatus> changes = diff();
+        StatusTable t = previous;
+
+        previous = current;
+        current = t;
+        swept = true;
+        return changes;
+    }
+
+    /**
+     * @return the number of droplets known as of the last sweep
+     */
+    public synchronized int size() {
+        return previous.size;
+    }
+
+    /**
+     * Forgets every droplet, the next sweep reports all of them again.
+     */
+    public synchronized void reset() {
+        previous.clear();
+        swept = false;
+    }
+
+    private @Nonnull List<ResourceStatus> diff() {
+        List<ResourceStatus> changes = new ArrayList<ResourceStatus>();
+
+        for( int i = 0; i < current.ids.length; i++ ) {
+            long id = current.ids[i];
+
+            if( id != 0 ) {
+                int slot = previous.indexOf(id);
+
+                if( !swept || slot < 0 || previous.states[slot] != current.states[i] ) {
+                    changes.add(new ResourceStatus(String.valueOf(id), toState(current.states[i])));
+                }
+            }
+        }
+        for( int i = 0; i < previous.ids.length; i++ ) {
+            long id = previous.ids[i];
+
+            if( id != 0 && current.indexOf(id) < 0 ) {
+                int misses = previous.misses[i] + 1;
+
+                if( misses >= MISSES_BEFORE_GONE ) {
+                    changes.add(new ResourceStatus(String.valueOf(id), VmState.TERMINATED));
+                }
+                else {
+                    // carried over until a later sweep confirms it is gone
+                    current.put(id, previous.states[i], (byte) misses);
+                }
+            }
+        }
+        if( logger.isDebugEnabled() ) {
+            logger.debug("Status sweep found " + current.size + " droplets, " + changes.size() + " changed");
+        }
+        return changes;
+    }
+
+    static private long toId(String id) {
+        if( id != null ) {
+            try {
+                return Long.parseLong(id);
+            }
+            catch( NumberFormatException e ) {
+                // not a droplet id we can track
+            }
+        }
+        logger.warn("Ignoring droplet with unexpected id " + id + " in status sweep");
+        return 0;
+    }
+
+    static private byte toCode(VmState state) {
+        return (byte) (state == null ? 0 : state.ordinal() + 1);
+    }
+
+    static private VmState toState(byte code) {
+        return (code == 0 ? null : STATES[code - 1]);
+    }
+
+    /**
+     * Droplet ids mapped to their state codes, open addressed with linear probing. Droplet ids are positive, so 0
+     * marks a free slot. The capacity must be a power of two.
+     */
+    static final class StatusTable {
+        long[] ids;
+        byte[] states;
+        byte[] misses;
+        int    size;
+
+        StatusTable(int capacity) {
+            ids = new long[capacity];
+            states = new byte[capacity];
+            misses = new byte[capacity];
+        }
+
+        void clear() {
+            Arrays.fill(ids, 0L);
+            size = 0;
+        }
+
+        int slot(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+
+            return (int) (h ^ (h >>> 32)) & (ids.length - 1);
+        }
+
+        int indexOf(long id) {
+            for( int i = slot(id); ids[i] != 0; i = (i + 1) & (ids.length - 1) ) {
+                if( ids[i] == id ) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void put(long id, byte state, byte missed) {
+            if( (size + 1) * 2 > ids.length ) {
+                grow();
+            }
+            int i = slot(id);
+
+            while( ids[i] != 0 && ids[i] != id ) {
+                i = (i + 1) & (ids.length - 1);
+            }
+            if( ids[i] == 0 ) {
+                ids[i] = id;
+                size++;
+            }
+            states[i] = state;
+            misses[i] = missed;
+        }
+
+        private void grow() {
+            long[] oldIds = ids;
+            byte[] oldStates = states;
+            byte[] oldMisses = misses;
+
+            ids = new long[oldIds.length * 2];
+            states = new byte[ids.length];
+            misses = new byte[ids.length];
+            size = 0;
+            for( int i = 0; i < oldIds.length; i++ ) {
+                if( oldIds[i] != 0 ) {
+                    put(oldIds[i], oldStates[i], oldMisses[i]);
+                }
+            }
+        }
+    }
+}
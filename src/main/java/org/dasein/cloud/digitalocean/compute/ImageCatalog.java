@@ -0,0 +1,312 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.compute;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.compute.Architecture;
+import org.dasein.cloud.compute.MachineImage;
+import org.dasein.cloud.compute.Platform;
+import org.dasein.cloud.digitalocean.models.Image;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An indexed snapshot of every image an account can launch from, public and private, used to answer image searches
+ * without going back to DigitalOcean. Images are indexed by id, region, platform, architecture and visibility, and
+ * the ids, names and descriptions are broken into {@value #GRAM_LENGTH}-character grams so that keyword searches
+ * only verify the handful of images holding every gram of the keyword.
+ * <p>A catalog is kept for {@value #TTL} ms. Once it expires the next search lists the images again; images that
+ * did not change are carried over from the previous catalog instead of being converted once more, and the public
+ * listings are mostly answered with 304s by the {@link org.dasein.cloud.digitalocean.models.rest.ResponseCache}.</p>
+ * <p>The catalog is shared by every search of the account, so its own images never leave it: searches hand out
+ * images converted afresh from the DigitalOcean images that matched.</p>
+ */
+final class ImageCatalog {
+    static private final long TTL         = 5L * 60000L;
+    static private final int  GRAM_LENGTH = 3;
+
+    /**
+     * Where a catalog gets its images from.
+     */
+    interface Source {
+        /**
+         * @return every image to index
+         * @throws CloudException an error occurred in the cloud provider
+         * @throws InternalException an error occurred within Dasein Cloud
+         */
+        @Nonnull Iterable<Image> list() throws CloudException, InternalException;
+
+        /**
+         * @param image an image as listed by DigitalOcean
+         * @return the Dasein image or null if it is to be left out
+         * @throws CloudException an error occurred in the cloud provider
+         * @throws InternalException an error occurred within Dasein Cloud
+         */
+        @Nullable MachineImage toImage(@Nonnull Image image) throws CloudException, InternalException;
+    }
+
+    static private final class Holder {
+        private volatile ImageCatalog catalog;
+    }
+
+    static private final ConcurrentMap<String, Holder> catalogs = new ConcurrentHashMap<String, Holder>();
+
+    /**
+     * Provides the catalog stored under a key, listing the images again if it is missing or has expired. Concurrent
+     * callers for the same key wait for a single refresh.
+     * @param key identifies the account and region the catalog is for
+     * @param source lists and converts the images
+     * @return the current catalog
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    static @Nonnull ImageCatalog getInstance(@Nonnull String key, @Nonnull Source source) throws CloudException, InternalException {
+        Holder holder = catalogs.get(key);
+        if( holder == null ) {
+            Holder h = new Holder();
+            holder = catalogs.putIfAbsent(key, h);
+            if( holder == null ) {
+                holder = h;
+            }
+        }
+        ImageCatalog current = holder.catalog;
+        if( current != null && !current.isExpired() ) {
+            return current;
+        }
+        synchronized( holder ) {
+            current = holder.catalog;
+            if( current == null || current.isExpired() ) {
+                current = new ImageCatalog(source, current);
+                holder.catalog = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Marks the catalogs stored under keys starting with a prefix as out of date, so that the next search refreshes
+     * them. Used when images are added or removed.
+     * @param prefix the start of the keys, typically identifying the account
+     */
+    static void expire(@Nonnull String prefix) {
+        for( Map.Entry<String, Holder> entry : catalogs.entrySet() ) {
+            ImageCatalog current = entry.getValue().catalog;
+            if( current != null && entry.getKey().startsWith(prefix) ) {
+                current.expiry = 0L;
+            }
+        }
+    }
+
+    /**
+     * An image of the catalog together with what it was converted from.
+     */
+    static private final class Entry {
+        private final Image        source;
+        private final MachineImage image;
+
+        private Entry(@Nonnull Image source, @Nonnull MachineImage image) {
+            this.source = source;
+            this.image = image;
+        }
+
+        private boolean isUnchanged(@Nonnull Image other) {
+            return (other == source || (eq(source.getName(), other.getName()) && eq(source.getDistribution(), other.getDistribution())
+                    && source.getPublic() == other.getPublic() && Arrays.equals(source.getRegions(), other.getRegions())));
+        }
+
+        static private boolean eq(@Nullable String a, @Nullable String b) {
+            return (a == null ? b == null : a.equals(b));
+        }
+    }
+
+    private final Entry[]                    entries;
+    private final Map<String, Integer>       byId         = new HashMap<String, Integer>();
+    private final Map<String, BitSet>        byRegion     = new HashMap<String, BitSet>();
+    private final Map<Platform, BitSet>      byPlatform   = new HashMap<Platform, BitSet>();
+    private final Map<Architecture, BitSet>  byArchitecture = new HashMap<Architecture, BitSet>();
+    private final Map<String, BitSet>        byGram       = new HashMap<String, BitSet>();
+    private final BitSet                     everywhere   = new BitSet();
+    private final BitSet                     publicImages = new BitSet();
+    private volatile long                    expiry;
+
+    private ImageCatalog(@Nonnull Source source, @Nullable ImageCatalog previous) throws CloudException, InternalException {
+        List<Entry> list = new ArrayList<Entry>();
+
+        for( Image image : source.list() ) {
+            if( image.getId() == null || byId.containsKey(image.getId()) ) {
+                continue;
+            }
+            Entry entry = (previous == null ? null : previous.getEntry(image.getId()));
+            if( entry == null || !entry.isUnchanged(image) ) {
+                MachineImage machineImage = source.toImage(image);
+                entry = (machineImage == null ? null : new Entry(image, machineImage));
+            }
+            if( entry != null ) {
+                byId.put(image.getId(), list.size());
+                list.add(entry);
+            }
+        }
+        entries = list.toArray(new Entry[list.size()]);
+        for( int i = 0; i < entries.length; i++ ) {
+            index(i, entries[i]);
+        }
+        expiry = System.currentTimeMillis() + TTL;
+    }
+
+    private void index(int i, @Nonnull Entry entry) {
+        String[] regions = entry.source.getRegions();
+        MachineImage image = entry.image;
+
+        if( regions == null || regions.length == 0 ) {
+            // images being deleted are listed in every region
+            everywhere.set(i);
+        }
+        else {
+            for( String region : regions ) {
+                bitsOf(byRegion, region).set(i);
+            }
+        }
+        if( image.getPlatform() != null ) {
+            bitsOf(byPlatform, image.getPlatform()).set(i);
+        }
+        if( image.getArchitecture() != null ) {
+            bitsOf(byArchitecture, image.getArchitecture()).set(i);
+        }
+        if( entry.source.getPublic() ) {
+            publicImages.set(i);
+        }
+        indexGrams(i, image.getProviderMachineImageId());
+        indexGrams(i, image.getName());
+        indexGrams(i, image.getDescription());
+    }
+
+    private void indexGrams(int i, @Nullable String text) {
+        if( text == null ) {
+            return;
+        }
+        for( int start = 0; start + GRAM_LENGTH <= text.length(); start++ ) {
+            bitsOf(byGram, text.substring(start, start + GRAM_LENGTH)).set(i);
+        }
+    }
+
+    static private @Nonnull <K> BitSet bitsOf(@Nonnull Map<K, BitSet> index, @Nonnull K key) {
+        BitSet bits = index.get(key);
+        if( bits == null ) {
+            bits = new BitSet();
+            index.put(key, bits);
+        }
+        return bits;
+    }
+
+    private @Nullable Entry getEntry(@Nonnull String id) {
+        Integer i = byId.get(id);
+        return (i == null ? null : entries[i]);
+    }
+
+    boolean isExpired() {
+        return (System.currentTimeMillis() >= expiry);
+    }
+
+    /**
+     * Looks up the images matching every given criterion.
+     * @param scope the visibility of the images
+     * @param regionId the region the images must be available in, null for any region
+     * @param keyword text the id, name or description must contain, null for any
+     * @param platform the platform of the images, {@link Platform#UNIX} and {@link Platform#WINDOWS} standing for any
+     * platform of that family, null for any
+     * @param architecture the architecture of the images, null for any
+     * @param source converts the matches into images the caller may change
+     * @return the matching images in catalog order
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    @Nonnull List<MachineImage> search(@Nonnull ImageQuery.Scope scope, @Nullable String regionId, @Nullable String keyword, @Nullable Platform platform, @Nullable Architecture architecture, @Nonnull Source source) throws CloudException, InternalException {
+        BitSet matches = new BitSet(entries.length);
+        matches.set(0, entries.length);
+
+        if( scope.equals(ImageQuery.Scope.PUBLIC) ) {
+            matches.and(publicImages);
+        }
+        else if( scope.equals(ImageQuery.Scope.PRIVATE) ) {
+            matches.andNot(publicImages);
+        }
+        if( regionId != null ) {
+            BitSet inRegion = (BitSet) everywhere.clone();
+            BitSet bits = byRegion.get(regionId);
+            if( bits != null ) {
+                inRegion.or(bits);
+            }
+            matches.and(inRegion);
+        }
+        if( architecture != null ) {
+            and(matches, byArchitecture.get(architecture));
+        }
+        if( platform != null ) {
+            BitSet onPlatform = new BitSet();
+            for( Map.Entry<Platform, BitSet> e : byPlatform.entrySet() ) {
+                Platform p = e.getKey();
+                if( p.equals(platform) || (platform.isWindows() && p.isWindows()) || (platform.equals(Platform.UNIX) && p.isUnix()) ) {
+                    onPlatform.or(e.getValue());
+                }
+            }
+            matches.and(onPlatform);
+        }
+        if( keyword != null ) {
+            for( int start = 0; start + GRAM_LENGTH <= keyword.length() && !matches.isEmpty(); start++ ) {
+                and(matches, byGram.get(keyword.substring(start, start + GRAM_LENGTH)));
+            }
+        }
+        List<MachineImage> results = new ArrayList<MachineImage>(matches.cardinality());
+        for( int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1) ) {
+            MachineImage image = entries[i].image;
+            // the grams only narrow the candidates down, the keyword still has to appear as a whole
+            if( keyword == null || contains(image.getProviderMachineImageId(), keyword) || contains(image.getName(), keyword) || contains(image.getDescription(), keyword) ) {
+                MachineImage copy = source.toImage(entries[i].source);
+                if( copy != null ) {
+                    results.add(copy);
+                }
+            }
+        }
+        return results;
+    }
+
+    static private void and(@Nonnull BitSet matches, @Nullable BitSet bits) {
+        if( bits == null ) {
+            matches.clear();
+        }
+        else {
+            matches.and(bits);
+        }
+    }
+
+    static private boolean contains(@Nullable String text, @Nonnull String keyword) {
+        return (text != null && text.contains(keyword));
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.compute;
+
+import org.dasein.cloud.compute.Architecture;
+import org.dasein.cloud.compute.ImageFilterOptions;
+import org.dasein.cloud.compute.Platform;
+import org.dasein.cloud.digitalocean.models.Image;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOcean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plans the listings needed to answer an image search. DigitalOcean can only narrow image listings down by type
+ * ({@code type=distribution} and {@code type=application}, which together make up the public catalog) and to the
+ * images of the account ({@code private=true}), so a search only requests the listings that may hold a match.
+ * Anything else in the filter is left to be evaluated on the images returned.
+ */
+final class ImageQuery {
+    /**
+     * The images a search covers.
+     */
+    enum Scope {
+        /**
+         * The public catalog: distributions and one-click applications.
+         */
+        PUBLIC,
+        /**
+         * The snapshots and backups of the account.
+         */
+        PRIVATE,
+        /**
+         * Both of the above.
+         */
+        ALL
+    }
+
+    /**
+     * A single listing to walk.
+     */
+    static final class Listing {
+        private final DigitalOcean endpoint;
+        private final String       query;
+
+        private Listing(@Nonnull DigitalOcean endpoint, @Nullable String query) {
+            this.endpoint = endpoint;
+            this.query = query;
+        }
+
+        @Nonnull DigitalOcean getEndpoint() {
+            return endpoint;
+        }
+
+        @Nullable String getQuery() {
+            return query;
+        }
+
+        @Override
+        public String toString() {
+            return endpoint + (query == null ? "" : " " + query);
+        }
+    }
+
+    static private final Listing DISTRIBUTIONS = new Listing(DigitalOcean.IMAGES_PUBLIC, "type=distribution");
+    static private final Listing APPLICATIONS  = new Listing(DigitalOcean.IMAGES_PUBLIC, "type=application");
+    static private final Listing ACCOUNT       = new Listing(DigitalOcean.IMAGES, null);
+
+    /**
+     * Works out which listings can hold images matching a filter.
+     * @param scope the images to search
+     * @param options the filter, evaluated in full on the images returned
+     * @return the plan
+     */
+    static @Nonnull ImageQuery plan(@Nonnull Scope scope, @Nonnull ImageFilterOptions options) {
+        if( !options.isMatchesAny() ) {
+            Architecture architecture = options.getArchitecture();
+            // DigitalOcean only has x86 images
+            if( architecture != null && !architecture.equals(Architecture.I32) && !architecture.equals(Architecture.I64) ) {
+                return new ImageQuery(scope, Collections.<Listing>emptyList());
+            }
+            Platform platform = options.getPlatform();
+            // and no Windows distributions or applications
+            if( platform != null && platform.isWindows() ) {
+                if( scope.equals(Scope.PUBLIC) ) {
+                    return new ImageQuery(scope, Collections.<Listing>emptyList());
+                }
+                scope = Scope.PRIVATE;
+            }
+        }
+        List<Listing> listings = new ArrayList<Listing>();
+        if( !scope.equals(Scope.PRIVATE) ) {
+            listings.add(DISTRIBUTIONS);
+            listings.add(APPLICATIONS);
+        }
+        if( !scope.equals(Scope.PUBLIC) ) {
+            listings.add(ACCOUNT);
+        }
+        return new ImageQuery(scope, listings);
+    }
+
+    private final Scope         scope;
+    private final List<Listing> listings;
+
+    private ImageQuery(@Nonnull Scope scope, @Nonnull List<Listing> listings) {
+        this.scope = scope;
+        this.listings = listings;
+    }
+
+    /**
+     * @return the listings to walk, empty if nothing can match
+     */
+    @Nonnull List<Listing> getListings() {
+        return listings;
+    }
+
+    /**
+     * @return the images covered by the listings
+     */
+    @Nonnull Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Checks the part of the search that can be decided from the raw image, before it is converted.
+     * @param image the image as listed by DigitalOcean
+     * @return true if the image belongs to the scope of the search
+     */
+    boolean accepts(@Nonnull Image image) {
+        switch( scope ) {
+            case PUBLIC: return image.getPublic();
+            case PRIVATE: return !image.getPublic();
+            default: return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return scope + " " + listings;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.compute;
+
+import org.dasein.cloud.compute.VmState;
+import org.dasein.cloud.digitalocean.models.Droplet;
+import org.dasein.cloud.digitalocean.models.Network;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * How far a new droplet must have come before a launch returns. The default level is taken from the
+ * {@code launchReadiness} custom property and is {@link #NETWORKS_ASSIGNED} when it is not set.
+ */
+public enum LaunchReadiness {
+    /**
+     * DigitalOcean accepted the request and assigned the droplet an id.
+     */
+    ACCEPTED,
+    /**
+     * The droplet has a public IPv4 address.
+     */
+    NETWORKS_ASSIGNED,
+    /**
+     * The droplet is up and running.
+     */
+    ACTIVE;
+
+    /**
+     * @param droplet the droplet as last seen
+     * @return true if the droplet reached this level
+     */
+    public boolean isReached(@Nonnull Droplet droplet) {
+        switch( this ) {
+            case ACCEPTED: return true;
+            case NETWORKS_ASSIGNED: return hasPublicAddress(droplet);
+            default: return VmState.RUNNING.equals(droplet.getStatus());
+        }
+    }
+
+    static boolean hasPublicAddress(@Nonnull Droplet droplet) {
+        if( droplet.getNetworks() == null || droplet.getNetworks().getV4() == null ) {
+            return false;
+        }
+        for( Network network : droplet.getNetworks().getV4() ) {
+            if( "public".equalsIgnoreCase(network.getType()) && network.getIpAddress() != null ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param value the name of a level, may be null
+     * @return the matching level or {@link #NETWORKS_ASSIGNED} if none matches
+     */
+    static public @Nonnull LaunchReadiness fromString(@Nullable String value) {
+        if( value != null ) {
+            for( LaunchReadiness readiness : values() ) {
+                if( readiness.name().equalsIgnoreCase(value.trim()) ) {
+                    return readiness;
+                }
+            }
+        }
+        return NETWORKS_ASSIGNED;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.compute;
+
+/**
+ * Where the time of a single launch went, in milliseconds since the launch started. A milestone that was not
+ * reached, or not waited for, is -1.
+ */
+public class LaunchTimings {
+    private long accepted = -1L;
+    private long networksAssigned = -1L;
+    private long active = -1L;
+    private long total = -1L;
+    private int  polls;
+
+    /**
+     * @return the time until DigitalOcean accepted the create request, including the image lookup
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return the time until the droplet was first seen with a public address
+     */
+    public long getNetworksAssigned() {
+        return networksAssigned;
+    }
+
+    /**
+     * @return the time until the droplet was first seen running
+     */
+    public long getActive() {
+        return active;
+    }
+
+    /**
+     * @return the time until the launch returned
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the number of times the droplet was polled after it was accepted
+     */
+    public int getPolls() {
+        return polls;
+    }
+
+    void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    void setNetworksAssigned(long networksAssigned) {
+        this.networksAssigned = networksAssigned;
+    }
+
+    void setActive(long active) {
+        this.active = active;
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    void polled() {
+        polls++;
+    }
+
+    @Override
+    public String toString() {
+        return "accepted=" + accepted + "ms, networks=" + networksAssigned + "ms, active=" + active + "ms, total=" + total + "ms, polls=" + polls;
+    }
+}
@@ -29,6 +29,7 @@ import org.dasein.cloud.digitalocean.models.Keys;
 import org.dasein.cloud.digitalocean.models.actions.sshkey.Create;
 import org.dasein.cloud.digitalocean.models.actions.sshkey.Destroy;
 import org.dasein.cloud.digitalocean.models.rest.DigitalOceanModelFactory;
+import org.dasein.cloud.digitalocean.models.rest.PagedIterable;
 import org.dasein.cloud.identity.AbstractShellKeySupport;
 import org.dasein.cloud.identity.SSHKeypair;
 import org.dasein.cloud.identity.ServiceAction;
@@ -37,11 +38,7 @@ import org.dasein.cloud.util.APITrace;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.ArrayList;
-import java.util.List;
-
 import static org.dasein.cloud.digitalocean.models.rest.DigitalOcean.KEYS;
-import static org.dasein.cloud.digitalocean.models.rest.DigitalOceanModelFactory.getModel;
 
 public class Keypairs extends AbstractShellKeySupport<DigitalOcean> {
 	static private final Logger logger = DigitalOcean.getLogger(Keypairs.class);
@@ -149,31 +146,14 @@ public class Keypairs extends AbstractShellKeySupport<DigitalOcean> {
     @Override
 	public @Nonnull Iterable<SSHKeypair> list() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Keypair.list");
-        List<SSHKeypair> results = new ArrayList<SSHKeypair>();
         try {
-            Keys keys = (Keys) DigitalOceanModelFactory.getModel(getProvider(), KEYS);
-            if (keys == null) {
-                return results;
-            }
-            int page = 1;
-            int total = keys.getTotal();
-            while( keys.getKeys().size() > 0 ) {
-                for (Key k : keys.getKeys()) {
-                    SSHKeypair kp = toSSHKeypair(k);
-
-                    if( kp != null ) {
-                        results.add(kp);
-                    } else {
-                        // discount the invalid ones
-                        total--;
-                    }
+            // pages are only fetched as the caller iterates
+            return new PagedIterable<Key, SSHKeypair>(getProvider(), KEYS, Key.class) {
+                @Override
+                protected SSHKeypair convert(@Nonnull Key k) throws InternalException {
+                    return toSSHKeypair(k);
                 }
-                if( total <= 0 || total == results.size() ) {
-                    break;
-                }
-                keys = (Keys) getModel(getProvider(), KEYS, ++page);
-            }
-            return results;
+            };
         }
         finally {
             APITrace.end();
@@ -21,9 +21,42 @@ package org.dasein.cloud.digitalocean.models;
 
 import org.dasein.cloud.digitalocean.models.rest.DigitalOceanRestModel;
 
+import javax.annotation.Nullable;
+
 public class Action implements DigitalOceanRestModel {
+	/**
+	 * The states of an action, as reported in its {@code status}.
+	 */
+	public enum Status {
+		IN_PROGRESS("in-progress"), COMPLETED("completed"), ERRORED("errored");
+
+		private final String value;
+
+		Status(String value) {
+			this.value = value;
+		}
+
+		/**
+		 * @param value the status as reported by DigitalOcean
+		 * @return the matching state or null if the status is unknown
+		 */
+		static public @Nullable Status fromString(@Nullable String value) {
+			for( Status s : values() ) {
+				if( s.value.equals(value) ) {
+					return s;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public String toString() {
+			return value;
+		}
+	}
+
 	String id;
-	String status;
+	Status status; // parsed straight from the status string, see Status#fromString
 	String type;
 	String started_at;
 	String completed_at;
@@ -39,10 +72,17 @@ public class Action implements DigitalOceanRestModel {
 	}
 	
 	public String getStatus() {
-		return this.status;
+		return (this.status == null ? null : this.status.toString());
 	}
 	public void setStatus(String s) {
-		this.status = s;
+		this.status = Status.fromString(s);
+	}
+
+	/**
+	 * @return the state of the action or null if DigitalOcean reported an unknown status
+	 */
+	public @Nullable Status getState() {
+		return this.status;
 	}
 	
 	public String getType() {
@@ -90,17 +130,11 @@ public class Action implements DigitalOceanRestModel {
 	
 	public boolean isComplete() {
 		//Mark as completed if completed or errored
-		if ( (this.getStatus().compareTo("completed") == 0) || (this.getStatus().compareTo("errored") == 0)) {
-			return true;
-		}		
-		return false;
+		return (this.status == Status.COMPLETED || this.status == Status.ERRORED);
 	}
 	
 	public boolean isError() {
-		if (this.getStatus().compareTo("errored") == 0) {
-			return true;
-		}		
-		return false;
+		return (this.status == Status.ERRORED);
 	}
 	
 	
@@ -38,4 +38,9 @@ public class Actions extends PaginatedModel {
         }
         return actions;
     }
+
+    @Override
+    public List<Action> getItems() {
+        return getActions();
+    }
 }
@@ -26,18 +26,19 @@ import org.dasein.cloud.digitalocean.models.rest.DigitalOceanRestModel;
 import javax.annotation.Nullable;
 
 public class Droplet implements DigitalOceanRestModel {
-	private String id;
-    private String name;
-    private Image image;
-    private Region region;
+	String id;
+    String name;
+    Image image;
+    Region region;
 
-    private Size size;
+    Size size;
     @SerializedName("size_slug")
-    private String sizeSlug; // this is a workaround for a minimised response on droplet create
+    String sizeSlug; // this is a workaround for a minimised response on droplet create
 
-    private Networks networks;
-    private String status;
+    Networks networks;
+    VmState status; // parsed straight from the status string, see toVmState
     @SerializedName( "snapshot_ids" ) String[] snapshotIds;
+    String[] tags;
 
     public String[] getSnapshotIds() {
         return snapshotIds;
@@ -47,6 +48,10 @@ public class Droplet implements DigitalOceanRestModel {
         this.snapshotIds = snapshotIds;
     }
 
+    public String[] getTags() {
+        return tags;
+    }
+
     public String getSizeSlug() {
         return sizeSlug;
     }
@@ -77,6 +82,15 @@ public class Droplet implements DigitalOceanRestModel {
     }
 
     public @Nullable VmState getStatus() {
+        return status;
+    }
+
+    /**
+     * Maps the status of a droplet onto a Dasein state.
+     * @param status the DigitalOcean status
+     * @return the state or null if the status is unknown
+     */
+    static @Nullable VmState toVmState(@Nullable String status) {
         if( "active".equals(status) ) {
             return VmState.RUNNING;
         }
@@ -92,4 +106,20 @@ public class Droplet implements DigitalOceanRestModel {
         return null;
     }
 
+    static @Nullable String toStatus(@Nullable VmState state) {
+        if( VmState.RUNNING.equals(state) ) {
+            return "active";
+        }
+        else if( VmState.PENDING.equals(state) ) {
+            return "new";
+        }
+        else if( VmState.STOPPED.equals(state) ) {
+            return "off";
+        }
+        else if( VmState.TERMINATED.equals(state) ) {
+            return "archive";
+        }
+        return null;
+    }
+
 }
@@ -38,4 +38,9 @@ public class Droplets extends PaginatedModel {
 		}
 		return droplets;
 	}
+
+	@Override
+	public List<Droplet> getItems() {
+		return getDroplets();
+	}
 }
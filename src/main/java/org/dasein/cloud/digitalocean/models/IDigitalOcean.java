@@ -19,15 +19,16 @@
 
 package org.dasein.cloud.digitalocean.models;
 
+import com.google.gson.stream.JsonReader;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.digitalocean.models.rest.DigitalOceanRestModel;
-import org.json.JSONException;
-import org.json.JSONObject;
+
+import java.io.IOException;
 
 public interface IDigitalOcean {
 
 	public String toString();
-	public DigitalOceanRestModel fromJson(JSONObject jso) throws JSONException, CloudException;
+	public DigitalOceanRestModel fromJson(JsonReader reader) throws IOException, CloudException;
 	
 	
 }
@@ -21,6 +21,8 @@ package org.dasein.cloud.digitalocean.models;
 
 import com.google.gson.annotations.SerializedName;
 import org.dasein.cloud.digitalocean.models.rest.DigitalOceanRestModel;
+
+import java.util.Arrays;
 	
 public class Image implements DigitalOceanRestModel {
 	String id;
@@ -30,6 +32,7 @@ public class Image implements DigitalOceanRestModel {
     @SerializedName("public")
 	Boolean isPublic;
 	String[] regions;
+	private transient volatile boolean shared;
 	
 	public String getId() {
 		return this.id;
@@ -40,6 +43,7 @@ public class Image implements DigitalOceanRestModel {
 	}		
 	
 	public void setSlug(String s) {
+		checkWritable();
 		this.slug = s;
 	}		
 
@@ -47,9 +51,11 @@ public class Image implements DigitalOceanRestModel {
 		return this.name;
 	}
 	public void setName(String b) {
+		checkWritable();
 		this.name = b;
 	}
 	public void setPublic(boolean b) {
+		checkWritable();
 		this.isPublic = b;
 	}
 	public boolean getPublic() {
@@ -58,17 +64,62 @@ public class Image implements DigitalOceanRestModel {
 
 
 	public String[] getRegions() {
-		return this.regions;
+		// the array of a shared image is shared as well
+		return (shared && regions != null ? regions.clone() : this.regions);
 	}
 	
 	public void setRegions(String[] r) {
+		checkWritable();
 		this.regions = r;
 	}
 	public String getDistribution() {
 		return this.distribution;
 	}
 	public void setDistribution(String b) {
+		checkWritable();
 		this.distribution = b;
 	}
-	
+
+	/**
+	 * Marks this image as shared between the droplets it was parsed for (see
+	 * {@link org.dasein.cloud.digitalocean.models.rest.Interner}), after which it can no longer be changed.
+	 */
+	public void share() {
+		this.shared = true;
+	}
+
+	/**
+	 * @return true if this image is shared between droplets and therefore read only
+	 */
+	public boolean isShared() {
+		return this.shared;
+	}
+
+	private void checkWritable() {
+		if( shared ) {
+			throw new UnsupportedOperationException("This image is shared between droplets and cannot be changed");
+		}
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if( this == other ) {
+			return true;
+		}
+		if( !(other instanceof Image) ) {
+			return false;
+		}
+		Image i = (Image) other;
+		return eq(id, i.id) && eq(slug, i.slug) && eq(name, i.name) && eq(distribution, i.distribution) && eq(isPublic, i.isPublic)
+				&& Arrays.equals(regions, i.regions);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(new Object[] { id, slug, name, distribution, isPublic }) * 31 + Arrays.hashCode(regions);
+	}
+
+	static private boolean eq(Object a, Object b) {
+		return (a == null ? b == null : a.equals(b));
+	}
 }
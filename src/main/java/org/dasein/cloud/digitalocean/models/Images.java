@@ -40,4 +40,8 @@ public class Images extends PaginatedModel {
         return images;
     }
 
+    @Override
+    public List<Image> getItems() {
+        return getImages();
+    }
 }
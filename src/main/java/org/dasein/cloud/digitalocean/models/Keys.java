@@ -37,4 +37,9 @@ public class Keys extends PaginatedModel {
         }
         return keys;
     }
+
+    @Override
+    public List<Key> getItems() {
+        return getKeys();
+    }
 }
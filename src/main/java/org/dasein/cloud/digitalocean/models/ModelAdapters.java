@@ -0,0 +1,734 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.dasein.cloud.digitalocean.models.rest.Projection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand written Gson adapters for the DigitalOcean models. Each adapter reads the fields it knows straight into
+ * the model and skips any other field without binding it, so parsing does no reflection and numbers are read
+ * into primitives rather than boxed. Strings and nested models are read through the adapters of the Gson instance
+ * the factory is registered on, which lets the {@link org.dasein.cloud.digitalocean.models.rest.Interner} share
+ * them when it is registered after this factory (later factories take precedence).
+ * <p>A factory reading droplets through a {@link Projection} skips whatever the projection leaves out, including
+ * within the nested image, region and size.</p>
+ */
+public class ModelAdapters implements TypeAdapterFactory {
+    private final Projection projection;
+
+    public ModelAdapters() {
+        this(Projection.FULL);
+    }
+
+    /**
+     * @param projection the parts of droplets to read, other fields are skipped as if they were unknown
+     */
+    public ModelAdapters(Projection projection) {
+        this.projection = projection;
+    }
+
+    private boolean isFull() {
+        return Projection.FULL.equals(projection);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+
+        if( raw == Droplet.class ) {
+            return (TypeAdapter<T>) new DropletAdapter(gson);
+        }
+        else if( raw == Image.class ) {
+            return (TypeAdapter<T>) new ImageAdapter(gson);
+        }
+        else if( raw == Size.class ) {
+            return (TypeAdapter<T>) new SizeAdapter(gson);
+        }
+        else if( raw == Region.class ) {
+            return (TypeAdapter<T>) new RegionAdapter(gson);
+        }
+        else if( raw == Action.class ) {
+            return (TypeAdapter<T>) new ActionAdapter(gson);
+        }
+        else if( raw == Key.class ) {
+            return (TypeAdapter<T>) new KeyAdapter(gson);
+        }
+        else if( raw == Event.class ) {
+            return (TypeAdapter<T>) new EventAdapter(gson);
+        }
+        else if( raw == Networks.class ) {
+            return (TypeAdapter<T>) new NetworksAdapter(gson);
+        }
+        else if( raw == Network.class ) {
+            return (TypeAdapter<T>) new NetworkAdapter(gson);
+        }
+        return null;
+    }
+
+    /**
+     * Reading and writing of the values models are made of.
+     */
+    static private abstract class ModelAdapter<T> extends TypeAdapter<T> {
+        private final Gson           gson;
+        private final Nested<String> strings;
+
+        ModelAdapter(Gson gson) {
+            this.gson = gson;
+            this.strings = nested(String.class);
+        }
+
+        /**
+         * @param type a type read by this adapter
+         * @return the adapter of the type, looked up once on first use as adapters may refer to each other
+         */
+        <M> Nested<M> nested(Class<M> type) {
+            return new Nested<M>(gson, type);
+        }
+
+        <M> TypeAdapter<M> adapter(Class<M> type) {
+            return gson.getAdapter(type);
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if( in.peek() == JsonToken.NULL ) {
+                in.nextNull();
+                return null;
+            }
+            T model = create();
+            in.beginObject();
+            while( in.hasNext() ) {
+                if( !readField(in, in.nextName(), model) ) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return model;
+        }
+
+        @Override
+        public void write(JsonWriter out, T model) throws IOException {
+            if( model == null ) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeFields(out, model);
+            out.endObject();
+        }
+
+        abstract T create();
+
+        /**
+         * Reads the value of a field into the model.
+         * @return false if the field is unknown and has to be skipped
+         */
+        abstract boolean readField(JsonReader in, String name, T model) throws IOException;
+
+        abstract void writeFields(JsonWriter out, T model) throws IOException;
+
+        String readString(JsonReader in) throws IOException {
+            return strings.get().read(in);
+        }
+
+        String[] readStrings(JsonReader in) throws IOException {
+            if( in.peek() == JsonToken.NULL ) {
+                in.nextNull();
+                return null;
+            }
+            List<String> values = new ArrayList<String>();
+            in.beginArray();
+            while( in.hasNext() ) {
+                values.add(readString(in));
+            }
+            in.endArray();
+            return values.toArray(new String[values.size()]);
+        }
+
+        <M> List<M> readList(JsonReader in, Nested<M> type) throws IOException {
+            if( in.peek() == JsonToken.NULL ) {
+                in.nextNull();
+                return null;
+            }
+            TypeAdapter<M> items = type.get();
+            List<M> values = new ArrayList<M>();
+            in.beginArray();
+            while( in.hasNext() ) {
+                values.add(items.read(in));
+            }
+            in.endArray();
+            return values;
+        }
+
+        Integer readInt(JsonReader in) throws IOException {
+            if( in.peek() == JsonToken.NULL ) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextInt();
+        }
+
+        Double readDouble(JsonReader in) throws IOException {
+            if( in.peek() == JsonToken.NULL ) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextDouble();
+        }
+
+        Long readLong(JsonReader in) throws IOException {
+            if( in.peek() == JsonToken.NULL ) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextLong();
+        }
+
+        Boolean readBoolean(JsonReader in) throws IOException {
+            if( in.peek() == JsonToken.NULL ) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextBoolean();
+        }
+
+        static void writeStrings(JsonWriter out, String name, String[] values) throws IOException {
+            if( values == null ) {
+                return;
+            }
+            out.name(name).beginArray();
+            for( String value : values ) {
+                out.value(value);
+            }
+            out.endArray();
+        }
+
+        static void writeBoolean(JsonWriter out, String name, Boolean value) throws IOException {
+            out.name(name);
+            if( value == null ) {
+                out.nullValue();
+            }
+            else {
+                out.value(value.booleanValue());
+            }
+        }
+
+        <M> void writeModel(JsonWriter out, String name, Class<M> type, M value) throws IOException {
+            if( value != null ) {
+                out.name(name);
+                adapter(type).write(out, value);
+            }
+        }
+
+        <M> void writeList(JsonWriter out, String name, Class<M> type, List<M> values) throws IOException {
+            if( values == null ) {
+                return;
+            }
+            TypeAdapter<M> items = adapter(type);
+            out.name(name).beginArray();
+            for( M value : values ) {
+                items.write(out, value);
+            }
+            out.endArray();
+        }
+    }
+
+    static private final class Nested<M> {
+        private final Gson              gson;
+        private final Class<M>          type;
+        private volatile TypeAdapter<M> adapter;
+
+        private Nested(Gson gson, Class<M> type) {
+            this.gson = gson;
+            this.type = type;
+        }
+
+        TypeAdapter<M> get() {
+            TypeAdapter<M> a = adapter;
+            if( a == null ) {
+                a = gson.getAdapter(type);
+                adapter = a;
+            }
+            return a;
+        }
+    }
+
+    private class DropletAdapter extends ModelAdapter<Droplet> {
+        private final Nested<Image>    images;
+        private final Nested<Region>   regions;
+        private final Nested<Size>     sizes;
+        private final Nested<Networks> networks;
+
+        DropletAdapter(Gson gson) {
+            super(gson);
+            images = nested(Image.class);
+            regions = nested(Region.class);
+            sizes = nested(Size.class);
+            networks = nested(Networks.class);
+        }
+
+        @Override
+        Droplet create() {
+            return new Droplet();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Droplet d) throws IOException {
+            if( Projection.STATUS.equals(projection) && !"id".equals(name) && !"status".equals(name) ) {
+                return false;
+            }
+            if( "id".equals(name) ) {
+                d.id = readString(in);
+            }
+            else if( "name".equals(name) ) {
+                d.name = readString(in);
+            }
+            else if( "status".equals(name) ) {
+                d.status = Droplet.toVmState(readString(in));
+            }
+            else if( "image".equals(name) ) {
+                d.image = images.get().read(in);
+            }
+            else if( "region".equals(name) ) {
+                d.region = regions.get().read(in);
+            }
+            else if( "size".equals(name) ) {
+                d.size = sizes.get().read(in);
+            }
+            else if( "size_slug".equals(name) ) {
+                d.sizeSlug = readString(in);
+            }
+            else if( "networks".equals(name) ) {
+                d.networks = networks.get().read(in);
+            }
+            else if( "snapshot_ids".equals(name) && isFull() ) {
+                d.snapshotIds = readStrings(in);
+            }
+            else if( "tags".equals(name) ) {
+                d.tags = readStrings(in);
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Droplet d) throws IOException {
+            out.name("id").value(d.id);
+            out.name("name").value(d.name);
+            out.name("status").value(Droplet.toStatus(d.status));
+            writeModel(out, "image", Image.class, d.image);
+            writeModel(out, "region", Region.class, d.region);
+            writeModel(out, "size", Size.class, d.size);
+            out.name("size_slug").value(d.sizeSlug);
+            writeModel(out, "networks", Networks.class, d.networks);
+            writeStrings(out, "snapshot_ids", d.snapshotIds);
+            writeStrings(out, "tags", d.tags);
+        }
+    }
+
+    private class ImageAdapter extends ModelAdapter<Image> {
+        ImageAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        Image create() {
+            return new Image();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Image i) throws IOException {
+            if( !isFull() && !"id".equals(name) && !"name".equals(name) && !"distribution".equals(name) ) {
+                return false;
+            }
+            if( "id".equals(name) ) {
+                i.id = readString(in);
+            }
+            else if( "slug".equals(name) ) {
+                i.slug = readString(in);
+            }
+            else if( "name".equals(name) ) {
+                i.name = readString(in);
+            }
+            else if( "distribution".equals(name) ) {
+                i.distribution = readString(in);
+            }
+            else if( "public".equals(name) ) {
+                i.isPublic = readBoolean(in);
+            }
+            else if( "regions".equals(name) ) {
+                i.regions = readStrings(in);
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Image i) throws IOException {
+            out.name("id").value(i.id);
+            out.name("slug").value(i.slug);
+            out.name("name").value(i.name);
+            out.name("distribution").value(i.distribution);
+            writeBoolean(out, "public", i.isPublic);
+            writeStrings(out, "regions", i.regions);
+        }
+    }
+
+    private class SizeAdapter extends ModelAdapter<Size> {
+        SizeAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        Size create() {
+            return new Size();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Size s) throws IOException {
+            if( !isFull() && !"slug".equals(name) ) {
+                return false;
+            }
+            if( "slug".equals(name) ) {
+                s.slug = readString(in);
+            }
+            else if( "memory".equals(name) ) {
+                s.memory = readInt(in);
+            }
+            else if( "vcpus".equals(name) ) {
+                s.vcpus = readInt(in);
+            }
+            else if( "disk".equals(name) ) {
+                s.disk = readInt(in);
+            }
+            else if( "transfer".equals(name) ) {
+                s.transfer = readDouble(in);
+            }
+            else if( "price_monthly".equals(name) ) {
+                s.price_monthly = readDouble(in);
+            }
+            else if( "price_hourly".equals(name) ) {
+                s.price_hourly = readDouble(in);
+            }
+            else if( "regions".equals(name) ) {
+                s.regions = readStrings(in);
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Size s) throws IOException {
+            out.name("slug").value(s.slug);
+            out.name("memory").value(s.memory);
+            out.name("vcpus").value(s.vcpus);
+            out.name("disk").value(s.disk);
+            out.name("transfer").value(s.transfer);
+            out.name("price_monthly").value(s.price_monthly);
+            out.name("price_hourly").value(s.price_hourly);
+            writeStrings(out, "regions", s.regions);
+        }
+    }
+
+    private class RegionAdapter extends ModelAdapter<Region> {
+        RegionAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        Region create() {
+            return new Region();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Region r) throws IOException {
+            if( !isFull() && !"slug".equals(name) ) {
+                return false;
+            }
+            if( "slug".equals(name) ) {
+                r.slug = readString(in);
+            }
+            else if( "name".equals(name) ) {
+                r.name = readString(in);
+            }
+            else if( "available".equals(name) ) {
+                r.available = readBoolean(in);
+            }
+            else if( "sizes".equals(name) ) {
+                r.sizes = readStrings(in);
+            }
+            else if( "features".equals(name) ) {
+                r.features = readStrings(in);
+            }
+            else if( "id".equals(name) ) {
+                r.id = readString(in);
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Region r) throws IOException {
+            out.name("id").value(r.id);
+            out.name("name").value(r.name);
+            out.name("slug").value(r.slug);
+            writeBoolean(out, "available", r.available);
+            writeStrings(out, "sizes", r.sizes);
+            writeStrings(out, "features", r.features);
+        }
+    }
+
+    static private class ActionAdapter extends ModelAdapter<Action> {
+        private final Nested<Region> regions;
+
+        ActionAdapter(Gson gson) {
+            super(gson);
+            regions = nested(Region.class);
+        }
+
+        @Override
+        Action create() {
+            return new Action();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Action a) throws IOException {
+            if( "id".equals(name) ) {
+                a.id = readString(in);
+            }
+            else if( "status".equals(name) ) {
+                a.status = Action.Status.fromString(readString(in));
+            }
+            else if( "type".equals(name) ) {
+                a.type = readString(in);
+            }
+            else if( "started_at".equals(name) ) {
+                a.started_at = readString(in);
+            }
+            else if( "completed_at".equals(name) ) {
+                a.completed_at = readString(in);
+            }
+            else if( "resource_id".equals(name) ) {
+                a.resource_id = readString(in);
+            }
+            else if( "resource_type".equals(name) ) {
+                a.resource_type = readString(in);
+            }
+            else if( "region".equals(name) ) {
+                a.region = regions.get().read(in);
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Action a) throws IOException {
+            out.name("id").value(a.id);
+            out.name("status").value(a.getStatus());
+            out.name("type").value(a.type);
+            out.name("started_at").value(a.started_at);
+            out.name("completed_at").value(a.completed_at);
+            out.name("resource_id").value(a.resource_id);
+            out.name("resource_type").value(a.resource_type);
+            writeModel(out, "region", Region.class, a.region);
+        }
+    }
+
+    static private class KeyAdapter extends ModelAdapter<Key> {
+        KeyAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        Key create() {
+            return new Key();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Key k) throws IOException {
+            if( "id".equals(name) ) {
+                k.id = readString(in);
+            }
+            else if( "name".equals(name) ) {
+                k.name = readString(in);
+            }
+            else if( "fingerprint".equals(name) ) {
+                k.fingerprint = readString(in);
+            }
+            else if( "public_key".equals(name) ) {
+                k.public_key = readString(in);
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Key k) throws IOException {
+            out.name("id").value(k.id);
+            out.name("name").value(k.name);
+            out.name("fingerprint").value(k.fingerprint);
+            out.name("public_key").value(k.public_key);
+        }
+    }
+
+    static private class EventAdapter extends ModelAdapter<Event> {
+        EventAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        Event create() {
+            return new Event();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Event e) throws IOException {
+            if( "id".equals(name) ) {
+                e.id = readLong(in);
+            }
+            else if( "percentage".equals(name) ) {
+                e.percentage = readString(in);
+            }
+            else if( "action_status".equals(name) ) {
+                e.action_status = readString(in);
+            }
+            else if( "message".equals(name) ) {
+                e.message = readString(in);
+            }
+            else if( "droplet_id".equals(name) ) {
+                e.droplet_id = readLong(in);
+            }
+            else if( "event_type_id".equals(name) ) {
+                e.event_type_id = readLong(in);
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Event e) throws IOException {
+            out.name("id").value(e.id);
+            out.name("percentage").value(e.percentage);
+            out.name("action_status").value(e.action_status);
+            out.name("message").value(e.message);
+            out.name("droplet_id").value(e.droplet_id);
+            out.name("event_type_id").value(e.event_type_id);
+        }
+    }
+
+    static private class NetworksAdapter extends ModelAdapter<Networks> {
+        private final Nested<Network> networks;
+
+        NetworksAdapter(Gson gson) {
+            super(gson);
+            networks = nested(Network.class);
+        }
+
+        @Override
+        Networks create() {
+            return new Networks();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Networks n) throws IOException {
+            if( "v4".equals(name) ) {
+                n.v4 = readList(in, networks);
+            }
+            else if( "v6".equals(name) ) {
+                n.v6 = readList(in, networks);
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Networks n) throws IOException {
+            writeList(out, "v4", Network.class, n.v4);
+            writeList(out, "v6", Network.class, n.v6);
+        }
+    }
+
+    static private class NetworkAdapter extends ModelAdapter<Network> {
+        NetworkAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        Network create() {
+            return new Network();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Network n) throws IOException {
+            if( "ip_address".equals(name) ) {
+                n.ipAddress = readString(in);
+            }
+            else if( "netmask".equals(name) ) {
+                n.netmask = readString(in);
+            }
+            else if( "gateway".equals(name) ) {
+                n.gateway = readString(in);
+            }
+            else if( "type".equals(name) ) {
+                n.type = readString(in);
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Network n) throws IOException {
+            out.name("ip_address").value(n.ipAddress);
+            out.name("netmask").value(n.netmask);
+            out.name("gateway").value(n.gateway);
+            out.name("type").value(n.type);
+        }
+    }
+}
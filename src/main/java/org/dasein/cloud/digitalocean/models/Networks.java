@@ -25,8 +25,8 @@ import java.util.List;
  * Created by mariapavlova on 21/10/2014.
  */
 public class Networks {
-    private List<Network> v4;
-    private List<Network> v6;
+    List<Network> v4;
+    List<Network> v6;
 
     public List<Network> getV4() {
         return v4;
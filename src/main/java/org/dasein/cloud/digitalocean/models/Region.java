@@ -21,6 +21,8 @@ package org.dasein.cloud.digitalocean.models;
 
 import org.dasein.cloud.digitalocean.models.rest.DigitalOceanRestModel;
 
+import java.util.Arrays;
+
 //{"name":"Amsterdam 3","features":["virtio","private_networking","backups","ipv6","metadata"],"sizes":["512mb","1gb","2gb","4gb","8gb","16gb","32gb","48gb","64gb"],"slug":"ams3","available":true}
 public class Region implements DigitalOceanRestModel {
 	String id;
@@ -49,4 +51,26 @@ public class Region implements DigitalOceanRestModel {
 	public Boolean getAvailable() {
 		return this.available;
 	}
+
+	@Override
+	public boolean equals(Object other) {
+		if( this == other ) {
+			return true;
+		}
+		if( !(other instanceof Region) ) {
+			return false;
+		}
+		Region r = (Region) other;
+		return eq(id, r.id) && eq(name, r.name) && eq(slug, r.slug) && eq(available, r.available)
+				&& Arrays.equals(sizes, r.sizes) && Arrays.equals(features, r.features);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(new Object[] { id, name, slug, available }) * 31 + Arrays.hashCode(sizes) * 17 + Arrays.hashCode(features);
+	}
+
+	static private boolean eq(Object a, Object b) {
+		return (a == null ? b == null : a.equals(b));
+	}
 }
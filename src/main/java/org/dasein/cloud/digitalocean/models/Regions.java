@@ -38,4 +38,9 @@ public class Regions extends PaginatedModel {
         }
         return regions;
 	}
+
+	@Override
+	public List<Region> getItems() {
+		return getRegions();
+	}
 }
@@ -21,6 +21,8 @@ package org.dasein.cloud.digitalocean.models;
 
 import org.dasein.cloud.digitalocean.models.rest.DigitalOceanRestModel;
 
+import java.util.Arrays;
+
 public class Size implements DigitalOceanRestModel {
 	String slug;
 	Integer memory;
@@ -30,6 +32,7 @@ public class Size implements DigitalOceanRestModel {
 	Double price_monthly;
 	Double price_hourly;
 	String[] regions;
+	private transient volatile boolean shared;
 	
 	public String getId() {
 		return this.slug;
@@ -40,6 +43,7 @@ public class Size implements DigitalOceanRestModel {
 	}		
 
 	public void setSlug(String s) {
+		checkWritable();
 		this.slug = s;
 	}		
 
@@ -47,37 +51,44 @@ public class Size implements DigitalOceanRestModel {
 		return this.memory;
 	}
 	public void setMemory(Integer mem) {
+		checkWritable();
 		this.memory = mem;
 	}
 	public Integer getCpus() {
 		return this.vcpus;
 	}
 	public void setCpus(Integer cpu) {
+		checkWritable();
 		this.vcpus = cpu;
 	} 
 	public Integer getDisk() {
 		return this.disk;
 	}
 	public void setDisk(Integer disk) {
+		checkWritable();
 		this.disk = disk;
 	} 
 	public Double getTransfer() {
 		return this.transfer;
 	}
 	public void setTransfer(Double trans) {
+		checkWritable();
 		this.transfer = trans;
 	} 
 	public void setRegion(String[] reg) {
+		checkWritable();
 		this.regions = reg;		
 	}
 	public String[] getRegions() {
-		return this.regions;
+		// the array of a shared size is shared as well
+		return (shared && regions != null ? regions.clone() : this.regions);
 	}
 	
 	public Double getHourlyPrice() {
 		return this.price_hourly;
 	}
 	public void setHourlyPrice(Double price) {
+		checkWritable();
 		this.price_hourly = price;
 	} 
 		
@@ -85,8 +96,50 @@ public class Size implements DigitalOceanRestModel {
 		return this.price_monthly;
 	}
 	public void setMonthlyPrice(Double price) {
+		checkWritable();
 		this.price_monthly = price;
-	} 
-	
-	
+	}
+
+	/**
+	 * Marks this size as shared between the droplets it was parsed for (see
+	 * {@link org.dasein.cloud.digitalocean.models.rest.Interner}), after which it can no longer be changed.
+	 */
+	public void share() {
+		this.shared = true;
+	}
+
+	/**
+	 * @return true if this size is shared between droplets and therefore read only
+	 */
+	public boolean isShared() {
+		return this.shared;
+	}
+
+	private void checkWritable() {
+		if( shared ) {
+			throw new UnsupportedOperationException("This size is shared between droplets and cannot be changed");
+		}
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if( this == other ) {
+			return true;
+		}
+		if( !(other instanceof Size) ) {
+			return false;
+		}
+		Size s = (Size) other;
+		return eq(slug, s.slug) && eq(memory, s.memory) && eq(vcpus, s.vcpus) && eq(disk, s.disk) && eq(transfer, s.transfer)
+				&& eq(price_monthly, s.price_monthly) && eq(price_hourly, s.price_hourly) && Arrays.equals(regions, s.regions);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(new Object[] { slug, memory, vcpus, disk, transfer, price_monthly, price_hourly }) * 31 + Arrays.hashCode(regions);
+	}
+
+	static private boolean eq(Object a, Object b) {
+		return (a == null ? b == null : a.equals(b));
+	}
 }
@@ -38,4 +38,9 @@ public class Sizes extends PaginatedModel {
 		}
 		return sizes;
 	}
+
+	@Override
+	public List<Size> getItems() {
+		return getSizes();
+	}
 }
@@ -50,8 +50,14 @@ import java.util.List;
 
 public class Create extends DigitalOceanPostAction {	
 
+	/**
+	 * The most droplets DigitalOcean creates from a single request.
+	 */
+	static public final int MAX_NAMES = 10;
+
 	//Required
 	String name = "";
+	List<String> names = null;
 	String size = null;
 	String image = null;	
 	String region = null;
@@ -70,6 +76,15 @@ public class Create extends DigitalOceanPostAction {
 		this.region = region_slug_or_id;		
 	}	
 	
+	/**
+	 * Creates up to {@value #MAX_NAMES} identical droplets in one request.
+	 * @param names the names of the droplets, one droplet is created per name
+	 */
+	public Create(List<String> names, String size, String image_or_imageId, String region_slug_or_id) {
+		this(names.isEmpty() ? null : names.get(0), size, image_or_imageId, region_slug_or_id);
+		this.names = new ArrayList<String>(names);
+	}
+
 	public Create(String dropletName, Integer sizeId, int theImageId, Long regionId) {
 		this.name = dropletName;
 		this.image = String.valueOf(theImageId);
@@ -98,6 +113,13 @@ public class Create extends DigitalOceanPostAction {
 		return this.backups_enabled;		
 	}
 
+	/**
+	 * @return the number of droplets this request creates
+	 */
+	public int getCount() {
+		return (this.names == null ? 1 : Math.max(1, this.names.size()));
+	}
+
 	public void setUserdata(String userdata){this.userdata = userdata;}
 
 	public String getUserdata(){return this.userdata;}
@@ -105,10 +127,17 @@ public class Create extends DigitalOceanPostAction {
 	public JSONObject getParameters() throws CloudException, JSONException {
 		JSONObject postData = new JSONObject();
 
-		if (this.name == null) {
-			throw new CloudException("Missing required parameter 'name'");
+		if (this.names != null && this.names.size() > 1) {
+			if (this.names.size() > MAX_NAMES) {
+				throw new CloudException("No more than " + MAX_NAMES + " droplets may be created at once");
+			}
+			postData.put("names", this.names);
+		} else {
+			if (this.name == null) {
+				throw new CloudException("Missing required parameter 'name'");
+			}
+			postData.put("name",  this.name);
 		}
-		postData.put("name",  this.name);
 		
 		if (this.size == null) {
 			throw new CloudException("Missing required parameter 'size' for 'id' or 'slug' value");
@@ -32,6 +32,12 @@ public class Shutdown extends DigitalOceanPostAction {
 	public String getType() {
 		return "shutdown";
 	}
+
+	@Override
+	public boolean isIdempotent() {
+		// asking for the state the droplet is already going to is harmless
+		return true;
+	}
 	
 }
 
@@ -31,6 +31,12 @@ public class Start extends DigitalOceanPostAction {
 	public  String getType() {			
 		return "power_on";
 	}
+
+	@Override
+	public boolean isIdempotent() {
+		// asking for the state the droplet is already going to is harmless
+		return true;
+	}
 	
 }
 
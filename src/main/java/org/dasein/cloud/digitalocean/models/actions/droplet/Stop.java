@@ -32,6 +32,12 @@ public class Stop extends DigitalOceanPostAction {
 	public  String getType() {			
 		return "power_off";
 	}
+
+	@Override
+	public boolean isIdempotent() {
+		// asking for the state the droplet is already going to is harmless
+		return true;
+	}
 	
 }
 
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+package org.dasein.cloud.digitalocean.models.actions.droplet;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.digitalocean.models.rest.ActionType;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanPostAction;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Performs a droplet action on every droplet carrying a tag, in a single request. The id the action is performed
+ * with is the tag name. DigitalOcean accepts only some actions this way, reboot in particular is not one of them.
+ */
+public class Tagged extends DigitalOceanPostAction {
+
+	static private final List<String> SUPPORTED = Arrays.asList("power_cycle", "power_on", "power_off", "shutdown", "enable_private_networking", "enable_ipv6", "enable_backups", "disable_backups", "snapshot");
+
+	private final DigitalOceanPostAction action;
+
+	public Tagged(DigitalOceanPostAction action) throws CloudException {
+		if (!SUPPORTED.contains(action.getType())) {
+			throw new CloudException("DigitalOcean cannot " + action.getType() + " droplets by tag");
+		}
+		this.action = action;
+		actionType = ActionType.DROPLET_TAG;
+	}
+
+	@Override
+	public String getType() {
+		return action.getType();
+	}
+
+	@Override
+	public JSONObject getParameters() throws CloudException, JSONException {
+		return action.getParameters();
+	}
+
+	@Override
+	public boolean isIdempotent() {
+		return action.isIdempotent();
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+package org.dasein.cloud.digitalocean.models.actions.tag;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanPostAction;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Creates a tag so that resources can be tagged with it.
+ */
+public class Create extends DigitalOceanPostAction {
+	private String name;
+
+	public Create(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return "v2/tags";
+	}
+
+	@Override
+	public JSONObject getParameters() throws CloudException, JSONException {
+		if( name == null ) {
+			throw new CloudException("Missing required parameter 'name'");
+		}
+		JSONObject postData = new JSONObject();
+		postData.put("name", name);
+		return postData;
+	}
+
+	@Override
+	public boolean isIdempotent() {
+		// creating a tag that already exists does not change anything
+		return true;
+	}
+
+	@Override
+	public int expectedHttpStatusCode() {
+		return 201;
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+package org.dasein.cloud.digitalocean.models.actions.tag;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.digitalocean.models.rest.ActionType;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanPostAction;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Tags a set of droplets with a single request. The tag must exist, see {@link Create}.
+ */
+public class TagResources extends DigitalOceanPostAction {
+	private String[] dropletIds;
+
+	public TagResources(String... dropletIds) {
+		actionType = ActionType.TAG;
+		this.dropletIds = dropletIds;
+	}
+
+	@Override
+	public JSONObject getParameters() throws CloudException, JSONException {
+		return getResources(dropletIds);
+	}
+
+	@Override
+	public boolean isIdempotent() {
+		return true;
+	}
+
+	@Override
+	public int expectedHttpStatusCode() {
+		return 204;
+	}
+
+	static JSONObject getResources(String[] dropletIds) throws CloudException, JSONException {
+		if( dropletIds == null || dropletIds.length == 0 ) {
+			throw new CloudException("Missing required parameter 'resources'");
+		}
+		JSONArray resources = new JSONArray();
+		for( String id : dropletIds ) {
+			JSONObject resource = new JSONObject();
+			resource.put("resource_id", id);
+			resource.put("resource_type", "droplet");
+			resources.put(resource);
+		}
+		JSONObject data = new JSONObject();
+		data.put("resources", resources);
+		return data;
+	}
+}
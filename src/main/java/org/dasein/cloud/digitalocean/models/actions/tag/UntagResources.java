@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+package org.dasein.cloud.digitalocean.models.actions.tag;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.digitalocean.models.rest.ActionType;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanDeleteAction;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Removes a tag from a set of droplets with a single request. The droplets are listed in the body of the DELETE.
+ */
+public class UntagResources extends DigitalOceanDeleteAction {
+	private String[] dropletIds;
+
+	public UntagResources(String... dropletIds) {
+		actionType = ActionType.TAG;
+		this.dropletIds = dropletIds;
+	}
+
+	@Override
+	public JSONObject getParameters() throws CloudException, JSONException {
+		return TagResources.getResources(dropletIds);
+	}
+}
@@ -0,0 +1,530 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.digitalocean.models.Action;
+import org.dasein.cloud.digitalocean.models.Actions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Follows the in-flight actions of a provider until DigitalOcean reports them as completed or errored. Rather than
+ * polling each action on its own, the tracker resolves every registered action from one shared walk of the
+ * {@code v2/actions} listing (newest first), which stops as soon as it has seen all of them. Any number of waiting
+ * operations therefore costs a single stream of requests, usually one per poll.
+ * <p>Polls are paced by an {@link AdaptiveWait}: they come quickly while actions keep completing and back off up to
+ * {@value #MAX_POLL_INTERVAL}ms while nothing changes; registering a new action brings the next poll forward. The
+ * loop stops when nothing is pending.</p>
+ */
+public class ActionTracker {
+    static private final Logger logger = org.dasein.cloud.digitalocean.DigitalOcean.getLogger(ActionTracker.class);
+
+    static public final long MIN_POLL_INTERVAL = AdaptiveWait.DEFAULT_INITIAL_DELAY;
+    static public final long MAX_POLL_INTERVAL = AdaptiveWait.DEFAULT_MAX_DELAY;
+    /**
+     * How long an action is followed before its future fails.
+     */
+    static public final long ACTION_TIMEOUT    = 30L * 60000L;
+    /**
+     * The most pages of the listing walked by one poll, actions not found by then are looked up by id.
+     */
+    static private final int MAX_PAGES         = 5;
+
+    /**
+     * The callers waiting on one action. An entry is published with its first waiter already in place, so a poll
+     * never takes it for abandoned before anyone had a chance to wait on it.
+     */
+    static private class Tracked {
+        private final List<BasicFuture<Action>> waiters = new ArrayList<BasicFuture<Action>>();
+        private final long                      expires;
+        private boolean                         finished;
+
+        private Tracked(long expires, @Nonnull BasicFuture<Action> first) {
+            this.expires = expires;
+            waiters.add(first);
+        }
+
+        synchronized boolean add(@Nonnull BasicFuture<Action> future) {
+            if( finished ) {
+                return false;
+            }
+            waiters.add(future);
+            return true;
+        }
+
+        /**
+         * Gives up on the action if every waiter is gone, later waiters then register a new entry.
+         * @return true if nobody waits on the action anymore
+         */
+        synchronized boolean abandon() {
+            for( BasicFuture<Action> future : waiters ) {
+                if( !future.isDone() ) {
+                    return false;
+                }
+            }
+            finished = true;
+            return true;
+        }
+
+        void complete(@Nonnull Action action) {
+            for( BasicFuture<Action> future : finish() ) {
+                future.completed(action);
+            }
+        }
+
+        void fail(@Nonnull Exception e) {
+            for( BasicFuture<Action> future : finish() ) {
+                future.failed(e);
+            }
+        }
+
+        private synchronized @Nonnull List<BasicFuture<Action>> finish() {
+            finished = true;
+            return new ArrayList<BasicFuture<Action>>(waiters);
+        }
+    }
+
+    private final org.dasein.cloud.digitalocean.DigitalOcean provider;
+    private final ConcurrentMap<String, Tracked> pending = new ConcurrentHashMap<String, Tracked>();
+    private final AtomicLong polls     = new AtomicLong();
+    private final AtomicLong requests  = new AtomicLong();
+    private final AtomicLong resolved  = new AtomicLong();
+    private final AtomicLong waits     = new AtomicLong();
+    private final AtomicLong totalWait = new AtomicLong();
+    private final AtomicLong maxWait   = new AtomicLong();
+
+    private ScheduledFuture<?>       nextPoll;
+    private ScheduledExecutorService nextPollTimer;
+    private long                     nextPollAt;
+    private final AdaptiveWait       pacing = new AdaptiveWait(Long.MAX_VALUE);
+    private boolean                  polling;
+    private boolean                  hurry;
+    private volatile boolean         closed;
+
+    public ActionTracker(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Follows an action until it is done.
+     * @param action the action as returned when it was requested
+     * @param callback notified of the outcome, may be null
+     * @return a future of the action in its final state, check {@link Action#isError()} for the outcome
+     */
+    public @Nonnull Future<Action> track(@Nonnull Action action, @Nullable FutureCallback<Action> callback) {
+        BasicFuture<Action> future = new BasicFuture<Action>(callback);
+
+        if( action.isComplete() ) {
+            future.completed(action);
+            return future;
+        }
+        if( closed ) {
+            future.failed(new CloudException("The provider was closed while waiting for actions"));
+            return future;
+        }
+        while( true ) {
+            Tracked tracked = pending.get(action.getId());
+
+            if( tracked == null ) {
+                tracked = pending.putIfAbsent(action.getId(), new Tracked(System.currentTimeMillis() + ACTION_TIMEOUT, future));
+                if( tracked == null ) {
+                    break;
+                }
+            }
+            // someone else is already waiting on this action, share the outcome
+            if( tracked.add(future) ) {
+                break;
+            }
+            // resolved or abandoned in the mean time, the entry is on its way out
+            pending.remove(action.getId(), tracked);
+        }
+        if( closed ) {
+            // closed while registering, nobody is going to poll for it
+            failAll(new CloudException("The provider was closed while waiting for actions"));
+        }
+        else {
+            schedule(MIN_POLL_INTERVAL);
+        }
+        return future;
+    }
+
+    /**
+     * Follows a batch of actions, such as the ones returned by a tag-addressed action, until all of them are done.
+     * @param actions the actions as returned when they were requested
+     * @param callback notified of the outcome, may be null
+     * @return a future of the actions in their final state; it fails as soon as one of them cannot be followed
+     */
+    public @Nonnull Future<List<Action>> trackAll(@Nonnull List<Action> actions, @Nullable FutureCallback<List<Action>> callback) {
+        final BasicFuture<List<Action>> all = new BasicFuture<List<Action>>(callback);
+        final Action[] done = new Action[actions.size()];
+        final AtomicInteger remaining = new AtomicInteger(actions.size());
+
+        if( actions.isEmpty() ) {
+            all.completed(new ArrayList<Action>());
+            return all;
+        }
+        for( int i = 0; i < done.length; i++ ) {
+            final int index = i;
+            track(actions.get(i), new FutureCallback<Action>() {
+                @Override
+                public void completed(Action result) {
+                    done[index] = result;
+                    if( remaining.decrementAndGet() == 0 ) {
+                        all.completed(Arrays.asList(done));
+                    }
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    all.failed(e);
+                }
+
+                @Override
+                public void cancelled() {
+                    all.cancel(true);
+                }
+            });
+        }
+        return all;
+    }
+
+    /**
+     * Waits for an action to be done.
+     * @param action the action as returned when it was requested
+     * @param timeout the longest time to wait, in milliseconds
+     * @return the action in its final state
+     * @throws CloudException the action errored, did not complete in time or could not be followed
+     * @throws InternalException the wait was interrupted
+     */
+    public @Nonnull Action await(@Nonnull Action action, long timeout) throws CloudException, InternalException {
+        long started = System.currentTimeMillis();
+        Future<Action> future = track(action, null);
+        try {
+            Action done = future.get(timeout, TimeUnit.MILLISECONDS);
+            if( done.isError() ) {
+                throw new CloudException("Action " + done.getType() + " (" + done.getId() + ") errored");
+            }
+            return done;
+        }
+        catch( InterruptedException e ) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InternalException(e);
+        }
+        catch( TimeoutException e ) {
+            future.cancel(true);
+            throw new CloudException("Timed out waiting for action " + action.getType() + " (" + action.getId() + ")");
+        }
+        catch( ExecutionException e ) {
+            if( e.getCause() instanceof CloudException ) {
+                throw (CloudException) e.getCause();
+            }
+            throw new CloudException(e.getCause());
+        }
+        finally {
+            long waited = System.currentTimeMillis() - started;
+            waits.incrementAndGet();
+            totalWait.addAndGet(waited);
+            long max;
+            while( waited > (max = maxWait.get()) && !maxWait.compareAndSet(max, waited) ) {
+                // lost a race with another waiter, try again
+            }
+            if( logger.isDebugEnabled() ) {
+                logger.debug("Waited " + waited + "ms for action " + action.getType() + " (" + action.getId() + ")");
+            }
+        }
+    }
+
+    /**
+     * Makes sure a poll happens within the given delay.
+     */
+    private synchronized void schedule(long delay) {
+        long at = System.currentTimeMillis() + delay;
+
+        if( closed ) {
+            return;
+        }
+        if( polling ) {
+            // the running poll schedules the next one, make sure it does not back off
+            hurry = true;
+            return;
+        }
+        if( isScheduled() && nextPollAt <= at ) {
+            return;
+        }
+        if( nextPoll != null ) {
+            nextPoll.cancel(false);
+        }
+        try {
+            ScheduledExecutorService timer = provider.getScheduler();
+
+            nextPollAt = at;
+            nextPollTimer = timer;
+            nextPoll = timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        provider.getExecutor().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                poll();
+                            }
+                        });
+                    }
+                    catch( RejectedExecutionException e ) {
+                        failAll(new CloudException("The provider was closed while waiting for actions"));
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        catch( RejectedExecutionException e ) {
+            failAll(new CloudException("The provider was closed while waiting for actions"));
+        }
+    }
+
+    /**
+     * @return true if a poll is due to run, a poll cancelled or left behind on a scheduler that was shut down never
+     * will
+     */
+    private boolean isScheduled() {
+        return (nextPoll != null && !nextPoll.isDone() && nextPollTimer != null && !nextPollTimer.isShutdown());
+    }
+
+    /**
+     * Stops following actions for good, as the provider is closing: the next poll is cancelled and everyone still
+     * waiting is failed rather than left to time out.
+     */
+    public void shutdown() {
+        synchronized( this ) {
+            closed = true;
+            if( nextPoll != null ) {
+                nextPoll.cancel(false);
+                nextPoll = null;
+            }
+            nextPollTimer = null;
+        }
+        failAll(new CloudException("The provider was closed while waiting for actions"));
+    }
+
+    private void poll() {
+        synchronized( this ) {
+            if( polling ) {
+                return;
+            }
+            polling = true;
+            nextPoll = null;
+        }
+        int found = 0;
+        try {
+            polls.incrementAndGet();
+            found = resolve();
+        }
+        catch( Throwable t ) {
+            logger.warn("Unable to check pending actions: " + t.getMessage());
+        }
+        finally {
+            expire();
+            synchronized( this ) {
+                // decided under the lock, an action tracked since expire() either shows up here or schedules itself
+                boolean more = (hurry || !pending.isEmpty());
+
+                polling = false;
+                if( found > 0 || hurry ) {
+                    pacing.reset();
+                }
+                hurry = false;
+                if( more ) {
+                    schedule(pacing.nextDelay());
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the action listing until every pending action has been seen.
+     * @return the number of actions that were found to be done
+     */
+    private int resolve() throws CloudException, InternalException {
+        Set<String> unseen = new HashSet<String>();
+        long oldest = Long.MAX_VALUE;
+
+        for( Map.Entry<String, Tracked> entry : pending.entrySet() ) {
+            if( entry.getValue().abandon() ) {
+                pending.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            unseen.add(entry.getKey());
+            oldest = Math.min(oldest, toNumber(entry.getKey()));
+        }
+        int found = 0;
+        int page = 1;
+
+        while( !unseen.isEmpty() && page <= MAX_PAGES ) {
+            Actions actions = (Actions) DigitalOceanModelFactory.getModel(provider, DigitalOcean.ACTIONS, page);
+            long lowest = Long.MAX_VALUE;
+
+            requests.incrementAndGet();
+            for( Action action : actions.getActions() ) {
+                lowest = Math.min(lowest, toNumber(action.getId()));
+                if( unseen.remove(action.getId()) && action.isComplete() ) {
+                    found += complete(action);
+                }
+            }
+            // the listing is newest first, nothing we wait for is older than the oldest pending action
+            if( actions.getActions().isEmpty() || lowest <= oldest || page * actions.getActions().size() >= actions.getTotal() ) {
+                break;
+            }
+            page++;
+        }
+        if( !unseen.isEmpty() && page > MAX_PAGES ) {
+            // buried too deep in a busy account, look those up directly
+            for( String id : unseen ) {
+                Action action = DigitalOceanModelFactory.getEventById(provider, id);
+                requests.incrementAndGet();
+                if( action != null && action.isComplete() ) {
+                    found += complete(action);
+                }
+            }
+        }
+        return found;
+    }
+
+    private int complete(@Nonnull Action action) {
+        Tracked tracked = pending.remove(action.getId());
+
+        if( tracked == null ) {
+            return 0;
+        }
+        resolved.incrementAndGet();
+        tracked.complete(action);
+        return 1;
+    }
+
+    /**
+     * Fails the actions followed for too long.
+     */
+    private void expire() {
+        long now = System.currentTimeMillis();
+
+        for( Map.Entry<String, Tracked> entry : pending.entrySet() ) {
+            Tracked tracked = entry.getValue();
+
+            // removed by value, the entry may have been replaced by a new one for the same action since
+            if( tracked.abandon() ) {
+                pending.remove(entry.getKey(), tracked);
+            }
+            else if( tracked.expires < now && pending.remove(entry.getKey(), tracked) ) {
+                tracked.fail(new CloudException("Timed out waiting for action " + entry.getKey()));
+            }
+        }
+    }
+
+    private void failAll(@Nonnull Exception e) {
+        Map<String, Tracked> all = new HashMap<String, Tracked>(pending);
+
+        pending.clear();
+        for( Tracked tracked : all.values() ) {
+            tracked.fail(e);
+        }
+    }
+
+    static private long toNumber(@Nullable String id) {
+        try {
+            return (id == null ? -1L : Long.parseLong(id));
+        }
+        catch( NumberFormatException e ) {
+            // unknown ordering, walk as far as allowed
+            return -1L;
+        }
+    }
+
+    /**
+     * @return the number of actions currently followed
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return the number of polls made since the tracker was created
+     */
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    /**
+     * @return the number of requests made by the polls since the tracker was created
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of actions found to be done since the tracker was created
+     */
+    public long getResolvedCount() {
+        return resolved.get();
+    }
+
+    /**
+     * @return the number of blocking waits made through {@link #await(Action, long)}
+     */
+    public long getWaitCount() {
+        return waits.get();
+    }
+
+    /**
+     * @return the total time spent in blocking waits, in milliseconds
+     */
+    public long getTotalWaitTime() {
+        return totalWait.get();
+    }
+
+    /**
+     * @return the longest single blocking wait, in milliseconds
+     */
+    public long getMaxWaitTime() {
+        return maxWait.get();
+    }
+}
@@ -20,17 +20,21 @@
 package org.dasein.cloud.digitalocean.models.rest;
 
 public enum ActionType {
-	DROPLET, KEY, IMAGE;
+	DROPLET, DROPLET_TAG, KEY, IMAGE, TAG;
 	
 	@Override
 	public String toString() {
 		switch(this) {
 			case DROPLET:
 				return "v2/droplets/%s/actions";
+			case DROPLET_TAG:
+				return "v2/droplets/actions?tag_name=%s";
 			case KEY:
 				return "v2/account/keys/%s/actions";
             case IMAGE:
                 return "v2/images/%s/actions";
+			case TAG:
+				return "v2/tags/%s/resources";
 			default:
 				return "v2/????";
 		}
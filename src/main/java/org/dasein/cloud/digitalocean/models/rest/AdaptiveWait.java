@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+/**
+ * Paces the checks made while waiting for something to happen in DigitalOcean. The first checks come quickly, since
+ * most actions finish within seconds, and the delay between them grows geometrically up to a ceiling for the ones
+ * that take longer. Delays never run past the deadline of the wait, and {@link #reset()} returns to quick checks
+ * once there is progress.
+ */
+public class AdaptiveWait {
+    static public final long   DEFAULT_INITIAL_DELAY = 500L;
+    static public final long   DEFAULT_MAX_DELAY     = 10000L;
+    static public final double DEFAULT_FACTOR        = 2.0;
+
+    private final long   initialDelay;
+    private final long   maxDelay;
+    private final double factor;
+    private final long   started;
+    private final long   deadline;
+    private long         nextDelay;
+
+    /**
+     * Creates a wait with the default pacing.
+     * @param timeout the longest time to wait, in milliseconds
+     */
+    public AdaptiveWait(long timeout) {
+        this(DEFAULT_INITIAL_DELAY, DEFAULT_MAX_DELAY, DEFAULT_FACTOR, timeout);
+    }
+
+    /**
+     * @param initialDelay the delay before the first check, in milliseconds
+     * @param maxDelay the longest delay between two checks, in milliseconds
+     * @param factor how much the delay grows after each check
+     * @param timeout the longest time to wait, in milliseconds
+     */
+    public AdaptiveWait(long initialDelay, long maxDelay, double factor, long timeout) {
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.factor = factor;
+        this.started = System.currentTimeMillis();
+        this.deadline = (Long.MAX_VALUE - started > timeout ? started + timeout : Long.MAX_VALUE);
+        this.nextDelay = initialDelay;
+    }
+
+    /**
+     * Moves on to the next delay.
+     * @return how long to wait before the next check, in milliseconds, never past the deadline
+     */
+    public synchronized long nextDelay() {
+        long delay = Math.min(nextDelay, getRemaining());
+        nextDelay = Math.min(maxDelay, (long) (nextDelay * factor));
+        return Math.max(0L, delay);
+    }
+
+    /**
+     * Goes back to quick checks, typically after some progress was seen.
+     */
+    public synchronized void reset() {
+        nextDelay = initialDelay;
+    }
+
+    /**
+     * Waits until the next check is due.
+     * @return false if the deadline passed and no further check should be made
+     * @throws InterruptedException the thread was interrupted
+     */
+    public boolean pause() throws InterruptedException {
+        if( isExpired() ) {
+            return false;
+        }
+        long delay = nextDelay();
+        if( delay > 0 ) {
+            Thread.sleep(delay);
+        }
+        return !isExpired();
+    }
+
+    /**
+     * @return true once the deadline has passed
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= deadline;
+    }
+
+    /**
+     * @return the time left until the deadline, in milliseconds
+     */
+    public long getRemaining() {
+        return Math.max(0L, deadline - System.currentTimeMillis());
+    }
+
+    /**
+     * @return the time spent waiting so far, in milliseconds
+     */
+    public long getElapsed() {
+        return System.currentTimeMillis() - started;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.pool.PoolStats;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.digitalocean.DigitalOcean;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of the HTTP responses checked out of the connection pool by the current thread so that any response
+ * still holding a pooled connection once a {@link DigitalOceanModelFactory} call returns is reported and aborted.
+ * A leaked connection is never returned to the pool, so left unchecked they eventually starve every other caller.
+ */
+public class ConnectionLeakDetector {
+    static private final Logger logger = DigitalOcean.getLogger(ConnectionLeakDetector.class);
+
+    static private final ThreadLocal<List<HttpRequestBase>> checkedOut = new ThreadLocal<List<HttpRequestBase>>() {
+        @Override
+        protected List<HttpRequestBase> initialValue() {
+            return new ArrayList<HttpRequestBase>();
+        }
+    };
+
+    static private final AtomicInteger outstanding = new AtomicInteger();
+    static private final AtomicInteger leaks = new AtomicInteger();
+
+    /**
+     * Records that a response to the given request now holds a pooled connection.
+     * @param request the executed request
+     */
+    static void acquired(@Nonnull HttpRequestBase request) {
+        checkedOut.get().add(request);
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * Records that the connection used by the given request was returned to the pool (or discarded).
+     * @param request the executed request
+     */
+    static void released(@Nonnull HttpRequestBase request) {
+        if( checkedOut.get().remove(request) ) {
+            outstanding.decrementAndGet();
+        }
+    }
+
+    /**
+     * Verifies that the current thread returned every connection it checked out. Leaked requests are logged and
+     * aborted so the underlying connection is given back to the pool.
+     * @param provider the provider owning the pool
+     * @param operation a description of the call that just completed
+     * @return the number of leaked connections found
+     */
+    static int check(@Nonnull DigitalOcean provider, @Nonnull String operation) {
+        List<HttpRequestBase> requests = checkedOut.get();
+
+        if( requests.isEmpty() ) {
+            if( logger.isTraceEnabled() ) {
+                PoolStats stats = provider.getConnectionPoolStats();
+                logger.trace("Connections after " + operation + ": " + (stats == null ? "no pool" : stats.toString()));
+            }
+            return 0;
+        }
+        int count = requests.size();
+        for( HttpRequestBase request : requests ) {
+            logger.warn("Connection leaked by " + operation + ": " + request.getRequestLine() + "; aborting it");
+            request.abort();
+        }
+        requests.clear();
+        outstanding.addAndGet(-count);
+        leaks.addAndGet(count);
+        return count;
+    }
+
+    /**
+     * @return the number of responses currently holding a pooled connection across all threads
+     */
+    static public int getOutstandingCount() {
+        return outstanding.get();
+    }
+
+    /**
+     * @return the number of leaked connections detected (and reclaimed) since startup
+     */
+    static public int getLeakCount() {
+        return leaks.get();
+    }
+}
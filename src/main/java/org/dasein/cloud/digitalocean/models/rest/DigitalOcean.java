@@ -20,12 +20,16 @@
 package org.dasein.cloud.digitalocean.models.rest;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.digitalocean.models.*;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+
+import java.io.IOException;
 
 public enum DigitalOcean implements IDigitalOcean {
 	
@@ -36,8 +40,8 @@ public enum DigitalOcean implements IDigitalOcean {
     DROPLET_ACTIONS,
 	SIZES,
 	SIZE,
-    IMAGES_PUBLIC, // only public
-    IMAGES, // all images
+    IMAGES_PUBLIC, // the public catalog, listed by type=distribution or type=application
+    IMAGES, // images of the account
 	IMAGE,
     IMAGE_ACTIONS,
 	ACTIONS,
@@ -45,7 +49,20 @@ public enum DigitalOcean implements IDigitalOcean {
 	KEYS,
 	KEY;
 
-    static Gson gson = new Gson();
+    /**
+     * The largest page size accepted by the DigitalOcean API.
+     */
+    static public final int MAX_PAGE_SIZE = 200;
+
+    // models are bound by hand written adapters rather than by reflection, see ModelAdapters
+    static Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ModelAdapters()).create();
+    // droplets repeat the same regions, sizes, images and slugs over and over, see Interner (registered last so
+    // that it wraps the model adapters)
+    static Gson dropletGson = new GsonBuilder().registerTypeAdapterFactory(new ModelAdapters()).registerTypeAdapterFactory(new Interner()).create();
+    static Gson dropletInstanceGson = new GsonBuilder().registerTypeAdapterFactory(new ModelAdapters(Projection.INSTANCE)).registerTypeAdapterFactory(new Interner()).create();
+    // ids are unique and statuses become enums, nothing worth interning
+    static Gson dropletStatusGson = new GsonBuilder().registerTypeAdapterFactory(new ModelAdapters(Projection.STATUS)).create();
+    static JsonParser parser = new JsonParser();
 
 	@Override
 	public  String toString() {
@@ -55,7 +72,7 @@ public enum DigitalOcean implements IDigitalOcean {
 		case DROPLETS: return "v2/droplets";
         case DROPLET: return "v2/droplets/%s";
         case DROPLET_ACTIONS: return DROPLET + "/actions";
-		case IMAGES_PUBLIC: return "v2/images/?public=true";
+		case IMAGES_PUBLIC: return "v2/images";
         case IMAGES: return "v2/images/?private=true";
 		case IMAGE: return "v2/images/%s";
         case IMAGE_ACTIONS: return IMAGE + "/actions";
@@ -69,136 +86,252 @@ public enum DigitalOcean implements IDigitalOcean {
 		}		
 	}
 
-	public DigitalOceanRestModel fromJson(JSONObject jso) throws JsonSyntaxException, JSONException, CloudException {
-		if (jso.has("id")) {
-			//GOt an error
-			throw new CloudException(jso.getString("message"));
+	/**
+	 * @return true if this endpoint lists its items one page at a time
+	 */
+	public boolean isPaginated() {
+		switch(this) {
+			case REGIONS:
+			case DROPLETS:
+			case DROPLET_ACTIONS:
+			case SIZES:
+			case IMAGES_PUBLIC:
+			case IMAGES:
+			case IMAGE_ACTIONS:
+			case ACTIONS:
+			case KEYS: return true;
+			default: return false;
 		}
-		
+	}
+
+	/**
+	 * @return true if this endpoint is a catalog that rarely changes, whose responses are kept by the
+	 * {@link ResponseCache} and revalidated with conditional requests; the models returned for it are shared
+	 * between callers and must not be changed
+	 */
+	public boolean isCacheable() {
 		switch(this) {
-			case DROPLET: {
-				return gson.fromJson(jso.getJSONObject("droplet").toString(), Droplet.class);
+			case REGIONS:
+			case SIZES:
+			case IMAGES_PUBLIC: return true;
+			default: return false;
+		}
+	}
+
+	/**
+	 * Determines how many items to request per page of this endpoint. The size can be set for a single endpoint
+	 * with the {@code perPage.<ENDPOINT>} custom property (e.g. {@code perPage.IMAGES}) or for every endpoint with
+	 * {@code perPage}, and defaults to the API maximum of {@value #MAX_PAGE_SIZE}.
+	 * @param provider the provider whose context holds the settings
+	 * @return the page size, never more than {@value #MAX_PAGE_SIZE}
+	 */
+	public int getPageSize(org.dasein.cloud.digitalocean.DigitalOcean provider) {
+		int size = provider.getIntProperty("perPage." + name(), provider.getIntProperty("perPage", MAX_PAGE_SIZE));
+		return Math.min(size, MAX_PAGE_SIZE);
+	}
+
+	/**
+	 * Provides this endpoint with its responses read through a projection.
+	 * @param projection the parts of the droplets to read
+	 * @return the endpoint itself for {@link Projection#FULL} or endpoints not listing droplets
+	 */
+	public IDigitalOcean project(Projection projection) {
+		if( projection == null || projection.equals(Projection.FULL) || (!this.equals(DROPLETS) && !this.equals(DROPLET)) ) {
+			return this;
+		}
+		return new ProjectedModel(this, projection);
+	}
+
+	public DigitalOceanRestModel fromJson(JsonReader reader) throws IOException, CloudException {
+		return fromJson(reader, Projection.FULL);
+	}
+
+	/**
+	 * Reads a response document for this endpoint straight off the HTTP stream. The root element is bound
+	 * element by element, so neither the raw payload nor an intermediate JSON tree is ever held in memory.
+	 * @param reader the reader positioned at the start of the response document
+	 * @param projection the parts of the droplets to read
+	 * @return the parsed model
+	 * @throws IOException if the document cannot be read
+	 * @throws CloudException if the document is an error response
+	 */
+	public DigitalOceanRestModel fromJson(JsonReader reader, Projection projection) throws IOException, CloudException {
+		DigitalOceanRestModel result = null;
+		boolean error = false;
+		String message = null;
+		int total = -1;
+
+		reader.beginObject();
+		while( reader.hasNext() ) {
+			String name = reader.nextName();
+			if( name.equals(getRootElement()) && reader.peek() != JsonToken.NULL ) {
+				result = readRoot(reader, projection);
+			}
+			else if( "meta".equals(name) ) {
+				total = readTotal(reader);
 			}
+			else if( "id".equals(name) ) {
+				//GOt an error
+				error = true;
+				reader.skipValue();
+			}
+			else if( "message".equals(name) && reader.peek() == JsonToken.STRING ) {
+				message = reader.nextString();
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		if( error ) {
+			throw new CloudException(message);
+		}
+		if( result == null ) {
+			throw new CloudException("DigitalOcean response did not contain '" + getRootElement() + "'");
+		}
+		if( total >= 0 && result instanceof PaginatedModel ) {
+			((PaginatedModel) result).setTotal(total);
+		}
+		return result;
+	}
+
+	private String getRootElement() {
+		switch(this) {
+			case DROPLET: return "droplet";
+			case DROPLETS: return "droplets";
+			case SIZE: return "size";
+			case SIZES: return "sizes";
+			case REGION: return "region";
+			case REGIONS: return "regions";
+			case DROPLET_ACTIONS:
+			case IMAGE_ACTIONS:
+			case ACTIONS: return "actions"; //V2 event = actions
+			case ACTION: return "action";
+			case KEY: return "ssh_key";
+			case KEYS: return "ssh_keys";
+			case IMAGE: return "image";
+			case IMAGES:
+			case IMAGES_PUBLIC: return "images";
+			default:
+				throw new IllegalArgumentException("DigitalOcean JSON to Object not implemented");
+		}
+	}
+
+	private DigitalOceanRestModel readRoot(JsonReader reader, Projection projection) throws IOException {
+		switch(this) {
+			case DROPLET: return getDropletGson(projection).fromJson(reader, Droplet.class);
+			case SIZE: return gson.fromJson(reader, Size.class);
+			case REGION: return gson.fromJson(reader, Region.class);
+			case ACTION: return gson.fromJson(reader, Action.class);
+			case KEY: return gson.fromJson(reader, Key.class);
+			case IMAGE: return gson.fromJson(reader, Image.class);
 
 			case DROPLETS: {
-				JSONArray jsArray = jso.getJSONArray("droplets");
 				Droplets droplets = new Droplets();
-				for (int i = 0; i < jsArray.length(); i++) {
-					Object u = gson.fromJson(jsArray.getJSONObject(i).toString(), Droplet.class);
-					droplets.addDroplet((Droplet)u);
+				TypeAdapter<Droplet> adapter = getDropletGson(projection).getAdapter(Droplet.class);
+				reader.beginArray();
+				while( reader.hasNext() ) {
+					droplets.addDroplet(adapter.read(reader));
 				}
-				JSONObject meta = jso.getJSONObject("meta");
-				if( meta.has("total") ) {
-					droplets.setTotal(meta.getInt("total"));
-				}
-
+				reader.endArray();
 				return droplets;
 			}
 
-			case SIZE: {
-				return gson.fromJson(jso.getJSONObject("size").toString(), Size.class);
-			}
-
 			case SIZES: {
-				JSONArray jsArray = jso.getJSONArray("sizes");
 				Sizes sizes = new Sizes();
-				for (int i = 0; i < jsArray.length(); i++) {
-					Object u = gson.fromJson(jsArray.getJSONObject(i).toString(), Size.class);
-					sizes.addSize((Size)u);
-				}
-				JSONObject meta = jso.getJSONObject("meta");
-				if( meta.has("total") ) {
-					sizes.setTotal(meta.getInt("total"));
+				TypeAdapter<Size> adapter = gson.getAdapter(Size.class);
+				reader.beginArray();
+				while( reader.hasNext() ) {
+					sizes.addSize(adapter.read(reader));
 				}
-
+				reader.endArray();
 				return sizes;
 			}
-			
+
 			case REGIONS: {
-				JSONArray jsArray = jso.getJSONArray("regions");
 				Regions regions = new Regions();
-				for (int i = 0; i < jsArray.length(); i++) {
+				reader.beginArray();
+				while( reader.hasNext() ) {
+					// bind through a per-region tree so one malformed region doesn't spoil the whole list
+					JsonElement element = parser.parse(reader);
 					try {
-						regions.addRegion(gson.fromJson(jsArray.getJSONObject(i).toString(), Region.class));
+						regions.addRegion(gson.fromJson(element, Region.class));
 					} catch (Exception ignore) {
 					}
 				}
-				JSONObject meta = jso.getJSONObject("meta");
-				if( meta.has("total") ) {
-					regions.setTotal(meta.getInt("total"));
-				}
-
+				reader.endArray();
 				return regions;
 			}
 
-			case REGION: {
-				return gson.fromJson(jso.getJSONObject("region").toString(), Region.class);
-			}
-
-            case DROPLET_ACTIONS:
-            case IMAGE_ACTIONS:
+			case DROPLET_ACTIONS:
+			case IMAGE_ACTIONS:
 			case ACTIONS: {
-				//V2 event = actions
-				JSONArray jsArray = jso.getJSONArray("actions");
 				Actions actions = new Actions();
-				for (int i = 0; i < jsArray.length(); i++) {
-					Object u = gson.fromJson(jsArray.getJSONObject(i).toString(), Action.class);
-					actions.addAction((Action)u);
+				TypeAdapter<Action> adapter = gson.getAdapter(Action.class);
+				reader.beginArray();
+				while( reader.hasNext() ) {
+					actions.addAction(adapter.read(reader));
 				}
-				JSONObject meta = jso.getJSONObject("meta");
-				if( meta.has("total") ) {
-					actions.setTotal(meta.getInt("total"));
-				}
-
+				reader.endArray();
 				return actions;
 			}
-			
-			case ACTION: {
-				return gson.fromJson(jso.getJSONObject("action").toString(), Action.class);
-			}
-
-			case KEY: {
-				return gson.fromJson(jso.getJSONObject("ssh_key").toString(), Key.class);
-			}
 
 			case KEYS: {
-				JSONArray jsArray = jso.getJSONArray("ssh_keys");
 				Keys keys = new Keys();
-				for (int i = 0; i < jsArray.length(); i++) {
-					Object u = gson.fromJson(jsArray.getJSONObject(i).toString(), Key.class);
-					keys.addKey((Key)u);
-				}
-				JSONObject meta = jso.getJSONObject("meta");
-				if( meta.has("total") ) {
-					keys.setTotal(meta.getInt("total"));
+				TypeAdapter<Key> adapter = gson.getAdapter(Key.class);
+				reader.beginArray();
+				while( reader.hasNext() ) {
+					keys.addKey(adapter.read(reader));
 				}
+				reader.endArray();
 				return keys;
 			}
 
-			case IMAGE: {
-				return gson.fromJson(jso.getJSONObject("image").toString(), Image.class);
-			}
-
-            case IMAGES:
+			case IMAGES:
 			case IMAGES_PUBLIC: {
-				JSONArray jsArray = jso.getJSONArray("images");
 				Images images = new Images();
-						
-				for (int i = 0; i < jsArray.length(); i++) {
-					Object u = gson.fromJson(jsArray.getJSONObject(i).toString(), Image.class);
-					images.addImage((Image)u);
+				TypeAdapter<Image> adapter = gson.getAdapter(Image.class);
+				reader.beginArray();
+				while( reader.hasNext() ) {
+					images.addImage(adapter.read(reader));
 				}
-                JSONObject meta = jso.getJSONObject("meta");
-                if( meta.has("total") ) {
-                    images.setTotal(meta.getInt("total"));
-                }
-				
+				reader.endArray();
 				return images;
 			}
 
 			default:
-                throw new IllegalArgumentException("DigitalOcean JSON to Object not implemented");
-		}		
+				throw new IllegalArgumentException("DigitalOcean JSON to Object not implemented");
+		}
 	}
-}
 
+	static private Gson getDropletGson(Projection projection) {
+		if( Projection.STATUS.equals(projection) ) {
+			return dropletStatusGson;
+		}
+		else if( Projection.INSTANCE.equals(projection) ) {
+			return dropletInstanceGson;
+		}
+		return dropletGson;
+	}
+
+	static private int readTotal(JsonReader reader) throws IOException {
+		int total = -1;
+
+		if( reader.peek() != JsonToken.BEGIN_OBJECT ) {
+			reader.skipValue();
+			return total;
+		}
+		reader.beginObject();
+		while( reader.hasNext() ) {
+			if( "total".equals(reader.nextName()) && reader.peek() == JsonToken.NUMBER ) {
+				total = reader.nextInt();
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return total;
+	}
+}
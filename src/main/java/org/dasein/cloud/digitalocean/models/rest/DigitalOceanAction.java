@@ -19,11 +19,14 @@
 
 package org.dasein.cloud.digitalocean.models.rest;
 
+import com.google.gson.stream.JsonReader;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.digitalocean.models.IDigitalOcean;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class DigitalOceanAction implements IDigitalOcean {
 	protected RESTMethod method;
 	protected ActionType actionType;
@@ -39,7 +42,7 @@ public class DigitalOceanAction implements IDigitalOcean {
 		return false;
 	}
 	
-	public DigitalOceanRestModel fromJson(JSONObject jso) throws JSONException {
+	public DigitalOceanRestModel fromJson(JsonReader reader) throws IOException {
 		//THIS IS NOT USED SINCE ALL ACTIONS RETURN AN EVENT OBJECT...
 		return null;
 	}
@@ -55,6 +58,15 @@ public class DigitalOceanAction implements IDigitalOcean {
 	public RESTMethod getRestMethod() {
 		return method;		
 	}
+
+	/**
+	 * Tells whether sending this action more than once has the same effect as sending it once, which allows it to
+	 * be retried after a server error or a timeout. Only POST actions are considered unsafe by default.
+	 * @return true if the action may safely be sent again
+	 */
+	public boolean isIdempotent() {
+		return method != RESTMethod.POST;
+	}
 	
 	public String getActionTypeUrl() {
 		return this.actionType.toString();
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.digitalocean.models.Action;
+import org.dasein.cloud.digitalocean.models.IDigitalOcean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous counterpart of {@link DigitalOceanModelFactory}. Each call returns immediately with a {@link Future}
+ * of the result and optionally reports the outcome to a {@link FutureCallback}. Requests are queued on the
+ * provider's {@link org.dasein.cloud.digitalocean.DigitalOcean#getExecutor() executor}, whose size matches the
+ * connection pool, so any number of outstanding calls is carried by a small fixed set of threads instead of one
+ * blocked thread per call. Requests go through {@link DigitalOceanModelFactory}, so parsing, retries, rate limiting
+ * and request coalescing behave exactly as for the blocking calls.
+ * <p>Cancelling a future before its request is sent prevents the request; once it is on the wire the request
+ * completes and its result is discarded.</p>
+ */
+public class DigitalOceanAsyncModelFactory {
+    static private final Logger logger = org.dasein.cloud.digitalocean.DigitalOcean.getLogger(DigitalOceanAsyncModelFactory.class);
+
+    static private <T> Future<T> submit(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull final Callable<T> call, @Nullable FutureCallback<T> callback) {
+        final BasicFuture<T> future = new BasicFuture<T>(callback);
+
+        try {
+            provider.getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    if( future.isDone() ) {
+                        // cancelled while queued
+                        return;
+                    }
+                    try {
+                        future.completed(call.call());
+                    }
+                    catch( Exception e ) {
+                        future.failed(e);
+                    }
+                    catch( Throwable t ) {
+                        logger.error("Asynchronous request failed: " + t.getMessage(), t);
+                        future.failed(new RuntimeException(t));
+                    }
+                }
+            });
+        }
+        catch( RejectedExecutionException e ) {
+            future.failed(e);
+        }
+        return future;
+    }
+
+    /**
+     * @see DigitalOceanModelFactory#getModel(org.dasein.cloud.digitalocean.DigitalOcean, DigitalOcean)
+     */
+    static public @Nonnull Future<DigitalOceanRestModel> getModelAsync(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull DigitalOcean model, @Nullable FutureCallback<DigitalOceanRestModel> callback) {
+        return getModelAsync(provider, model, 0, callback);
+    }
+
+    /**
+     * @see DigitalOceanModelFactory#getModel(org.dasein.cloud.digitalocean.DigitalOcean, DigitalOcean, int)
+     */
+    static public @Nonnull Future<DigitalOceanRestModel> getModelAsync(@Nonnull final org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull final DigitalOcean model, final int page, @Nullable FutureCallback<DigitalOceanRestModel> callback) {
+        return submit(provider, new Callable<DigitalOceanRestModel>() {
+            @Override
+            public DigitalOceanRestModel call() throws Exception {
+                return DigitalOceanModelFactory.getModel(provider, model, page);
+            }
+        }, callback);
+    }
+
+    /**
+     * @see DigitalOceanModelFactory#getModelById(org.dasein.cloud.digitalocean.DigitalOcean, DigitalOcean, String)
+     */
+    static public @Nonnull Future<DigitalOceanRestModel> getModelByIdAsync(@Nonnull final org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull final DigitalOcean model, @Nonnull final String id, @Nullable FutureCallback<DigitalOceanRestModel> callback) {
+        return submit(provider, new Callable<DigitalOceanRestModel>() {
+            @Override
+            public DigitalOceanRestModel call() throws Exception {
+                return DigitalOceanModelFactory.getModelById(provider, model, id);
+            }
+        }, callback);
+    }
+
+    /**
+     * @see DigitalOceanModelFactory#performAction(org.dasein.cloud.digitalocean.DigitalOcean, DigitalOceanAction, String)
+     */
+    static public @Nonnull Future<Action> performActionAsync(@Nonnull final org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull final DigitalOceanAction doa, @Nonnull final String id, @Nullable FutureCallback<Action> callback) {
+        return submit(provider, new Callable<Action>() {
+            @Override
+            public Action call() throws Exception {
+                return DigitalOceanModelFactory.performAction(provider, doa, id);
+            }
+        }, callback);
+    }
+
+    /**
+     * @see DigitalOceanModelFactory#performAction(org.dasein.cloud.digitalocean.DigitalOcean, DigitalOceanAction, IDigitalOcean)
+     */
+    static public @Nonnull Future<DigitalOceanRestModel> performActionAsync(@Nonnull final org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull final DigitalOceanAction doa, @Nullable final IDigitalOcean returnObject, @Nullable FutureCallback<DigitalOceanRestModel> callback) {
+        return submit(provider, new Callable<DigitalOceanRestModel>() {
+            @Override
+            public DigitalOceanRestModel call() throws Exception {
+                return DigitalOceanModelFactory.performAction(provider, doa, returnObject);
+            }
+        }, callback);
+    }
+}
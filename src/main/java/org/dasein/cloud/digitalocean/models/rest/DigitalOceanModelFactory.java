@@ -19,7 +19,8 @@
 
 package org.dasein.cloud.digitalocean.models.rest;
 
-import org.apache.commons.io.IOUtils;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import org.apache.http.Consts;
 import org.apache.http.Header;
 import org.apache.http.HeaderElement;
@@ -54,69 +55,177 @@ import org.dasein.cloud.ProviderContext;
 import org.dasein.cloud.digitalocean.models.Action;
 import org.dasein.cloud.digitalocean.models.Actions;
 import org.dasein.cloud.digitalocean.models.Droplet;
+import org.dasein.cloud.digitalocean.models.Droplets;
 import org.dasein.cloud.digitalocean.models.IDigitalOcean;
 import org.dasein.cloud.digitalocean.models.actions.droplet.Create;
+import org.dasein.cloud.digitalocean.models.actions.tag.TagResources;
+import org.dasein.cloud.digitalocean.models.actions.tag.UntagResources;
 import org.dasein.cloud.identity.SSHKeypair;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DigitalOceanModelFactory {
 
     static private final Logger wire = org.dasein.cloud.digitalocean.DigitalOcean.getWireLogger(DigitalOceanModelFactory.class);
 	static private final Logger logger = org.dasein.cloud.digitalocean.DigitalOcean.getLogger(DigitalOceanModelFactory.class);
 
+    /**
+     * GET requests currently on the wire, keyed by token and URL.
+     */
+    private static final ConcurrentMap<String, FutureTask<DigitalOceanRestModel>> inFlight = new ConcurrentHashMap<String, FutureTask<DigitalOceanRestModel>>();
+    private static final AtomicLong coalesced = new AtomicLong();
+
     //for get method
-    private static String performHttpRequest(org.dasein.cloud.digitalocean.DigitalOcean provider, RESTMethod method, String token, String endpoint) throws CloudException, InternalException {
-    	return performHttpRequest(provider, method, token, endpoint, null);
+    private static DigitalOceanRestModel performHttpRequest(final org.dasein.cloud.digitalocean.DigitalOcean provider, final RESTMethod method, final String token, final String endpoint, final RateLimiter.Lane lane, final IDigitalOcean model) throws CloudException, InternalException {
+        if( method != RESTMethod.GET ) {
+            return performHttpRequest(provider, method, token, endpoint, null, lane, model);
+        }
+        // identical GETs issued while one is on the wire wait for it and share its result instead of sending their own
+        String key = token + " " + endpoint;
+        if( model instanceof ProjectedModel ) {
+            // a projected result lacks what other callers may need
+            key += " " + ((ProjectedModel) model).getProjection();
+        }
+        FutureTask<DigitalOceanRestModel> task = new FutureTask<DigitalOceanRestModel>(new Callable<DigitalOceanRestModel>() {
+            @Override
+            public DigitalOceanRestModel call() throws Exception {
+                return performHttpRequest(provider, method, token, endpoint, null, lane, model);
+            }
+        });
+        FutureTask<DigitalOceanRestModel> existing = inFlight.putIfAbsent(key, task);
+
+        if( existing == null ) {
+            try {
+                task.run();
+            }
+            finally {
+                inFlight.remove(key, task);
+            }
+        }
+        else {
+            coalesced.incrementAndGet();
+            if( logger.isDebugEnabled() ) {
+                logger.debug("Joining the request in flight for " + endpoint);
+            }
+            task = existing;
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CloudException("Problem sending request.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CloudException) {
+                throw (CloudException) cause;
+            } else if (cause instanceof InternalException) {
+                throw (InternalException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new InternalException(cause);
+        }
     }
-    
-	private static String performHttpRequest(org.dasein.cloud.digitalocean.DigitalOcean provider, RESTMethod method, String token, String endpoint, DigitalOceanAction action) throws CloudException, InternalException {
+
+    /**
+     * @return the number of GET requests that were answered by joining an identical request already in flight
+     */
+    public static long getCoalescedRequestCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Executes a request and binds the response body to the given model while it streams off the connection.
+     * @param model the model describing the expected response, or null if the body should be discarded
+     * @return the parsed model or null if there was no response body or no model to bind it to
+     */
+	private static DigitalOceanRestModel performHttpRequest(org.dasein.cloud.digitalocean.DigitalOcean provider, RESTMethod method, String token, String endpoint, DigitalOceanAction action, RateLimiter.Lane lane, IDigitalOcean model) throws CloudException, InternalException {
 		if( logger.isTraceEnabled() ) {
             logger.trace("ENTER - " + DigitalOceanModelFactory.class.getName() + ".performHttpRequest(" + method + "," + token + "," + endpoint + ")");
             logger.trace("CALLING - " + method + " "  + endpoint);
         }
-        HttpResponse response;
-        String responseBody = null;
+        boolean cacheable = (method == RESTMethod.GET && model instanceof DigitalOcean && ((DigitalOcean) model).isCacheable());
+        ResponseCache.Entry cached = (cacheable ? ResponseCache.get(token, endpoint) : null);
+
+        if( cached != null && cached.isFresh() ) {
+            ResponseCache.hit();
+            return cached.getModel();
+        }
+        HttpRequestBase req = createRequest(method, token, endpoint, action);
+        HttpResponse response = null;
         try {
-            response = sendRequest(provider, method, token, endpoint, action);
-            if( response.getEntity() != null ) {
-                responseBody = IOUtils.toString(response.getEntity().getContent());
+            if( cached != null ) {
+                cached.addValidators(req);
+            }
+            response = sendRequest(provider, req, method, action, lane);
+            int status = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+
+            if( status == 304 && cached != null ) {
+                // unchanged, reuse what was parsed the last time
+                ResponseCache.revalidated();
+                return cached.getModel();
+            }
+            if( status >= 300 ) {
+                // error documents are tiny, read them whole for the log
+                String responseBody = (entity == null ? null : EntityUtils.toString(entity));
                 if( wire.isDebugEnabled() ) {
                     wire.debug(responseBody);
                 }
-            }
-            if (logger.isTraceEnabled()) {
-                logger.trace("RECEIVED - " + "[" + response.getStatusLine().getStatusCode() + "] " + responseBody);
-            }
-
-            if( response.getStatusLine().getStatusCode() >= 300 ) {
-                JSONObject ob = new JSONObject(responseBody);
                 String message = null;
                 String code = null;
-                if( ob != null ) {
+                if( responseBody != null ) {
+                    JSONObject ob = new JSONObject(responseBody);
                     code = ob.getString("id");
                     message = ob.getString("message");
                 }
-                logger.error("Status:" + response.getStatusLine().getStatusCode() + " - " + responseBody);
-                throw new CloudException(CloudErrorType.GENERAL, response.getStatusLine().getStatusCode(), code, message);
+                logger.error("Status:" + status + " - " + responseBody);
+                throw new CloudException(CloudErrorType.GENERAL, status, code, message);
+            }
+            if (logger.isTraceEnabled()) {
+                logger.trace("RECEIVED - " + "[" + status + "]");
             }
-            return responseBody;
+            if( entity == null || model == null ) {
+                return null;
+            }
+            DigitalOceanRestModel result = parseResponse(entity, model);
+            if( cacheable && result != null ) {
+                ResponseCache.put(token, endpoint, response, result);
+            }
+            return result;
 
         } catch (JSONException e) {
             throw new CloudException(e);
+        } catch (JsonParseException e) {
+            throw new CloudException(e);
         } catch (IOException e) {
+            req.abort();
             throw new CloudException(e);
         } finally {
+            releaseResponse(req, response);
+            ConnectionLeakDetector.check(provider, method + " " + endpoint);
             if (logger.isTraceEnabled()) {
                 logger.trace("EXIT - " + DigitalOceanModelFactory.class.getName() + ".performHttpRequest(" + method + "," + token + "," + endpoint + ")");
             }
@@ -128,41 +237,102 @@ public class DigitalOceanModelFactory {
     }
 
     /**
-     * Sent http request to the server
-     * @return Http response
-     * @throws CloudException
+     * Binds a response entity to a model in a single pass over the content stream. Only when wire logging is
+     * enabled is the body buffered, so that it can be logged.
      */
-    private static HttpResponse sendRequest(org.dasein.cloud.digitalocean.DigitalOcean provider, RESTMethod method, String token, String strUrl, DigitalOceanAction action) throws CloudException, InternalException {
-        HttpRequestBase req = null;
-        if (method == RESTMethod.GET) {
-            req = new HttpGet(strUrl);
-        } else if (method == RESTMethod.POST) {
-            req = new HttpPost(strUrl);
-        } else if (method == RESTMethod.PUT) {
-            req = new HttpPut(strUrl);
-        } else if (method == RESTMethod.DELETE) {
-            req = new HttpDelete(strUrl);
-        } else if (method == RESTMethod.HEAD) {
-            req = new HttpHead(strUrl);
+    private static DigitalOceanRestModel parseResponse(HttpEntity entity, IDigitalOcean model) throws IOException, CloudException {
+        Reader reader;
+        if( wire.isDebugEnabled() ) {
+            String responseBody = EntityUtils.toString(entity, Consts.UTF_8.name());
+            wire.debug(responseBody);
+            reader = new StringReader(responseBody);
+        }
+        else {
+            Charset charset = ContentType.getOrDefault(entity).getCharset();
+            reader = new InputStreamReader(entity.getContent(), charset == null ? Consts.UTF_8 : charset);
         }
+        // the content stream is left open here, releasing the response drains and recycles it
+        return model.fromJson(new JsonReader(reader));
+    }
 
+    /**
+     * HttpClient's own DELETE request cannot carry a body.
+     */
+    private static class HttpDeleteWithBody extends HttpEntityEnclosingRequestBase {
+        private HttpDeleteWithBody(String uri) {
+            setURI(java.net.URI.create(uri));
+        }
+
+        @Override
+        public String getMethod() {
+            return HttpDelete.METHOD_NAME;
+        }
+    }
+
+    private static HttpRequestBase createRequest(RESTMethod method, String token, String strUrl, DigitalOceanAction action) throws CloudException {
+        HttpRequestBase req = null;
         try {
+            if (method == RESTMethod.GET) {
+                req = new HttpGet(strUrl);
+            } else if (method == RESTMethod.POST) {
+                req = new HttpPost(strUrl);
+            } else if (method == RESTMethod.PUT) {
+                req = new HttpPut(strUrl);
+            } else if (method == RESTMethod.DELETE) {
+                // a few DELETE calls (e.g. untagging) name what to delete in the body
+                req = (action != null && action.getParameters() != null ? new HttpDeleteWithBody(strUrl) : new HttpDelete(strUrl));
+            } else if (method == RESTMethod.HEAD) {
+                req = new HttpHead(strUrl);
+            }
+
             req.setHeader("Authorization", "Bearer " + token);
             req.setHeader("Accept", "application/json");
             req.setHeader("Content-Type", "application/json;charset=UTF-8");
 
-            StringEntity requestEntity = null;
             if (req instanceof HttpEntityEnclosingRequestBase && action != null) {
                 JSONObject jsonToPost = action.getParameters();
                 if (jsonToPost != null) {
-                    requestEntity = new StringEntity(
+                    StringEntity requestEntity = new StringEntity(
                             jsonToPost.toString(),
                             ContentType.APPLICATION_JSON);
                     ((HttpEntityEnclosingRequestBase) req).setEntity(requestEntity);
                 }
             }
+            return req;
+        } catch (JSONException e) {
+            throw new CloudException("Problem sending request.", e);
+        }
+    }
 
+    /**
+     * Returns the connection used by a response to the pool. The entity is fully consumed so the keep-alive
+     * connection can be reused; if that fails the request is aborted and the connection discarded instead.
+     * @param req the executed request
+     * @param response the response to release, may be null if execution failed
+     */
+    private static void releaseResponse(HttpRequestBase req, HttpResponse response) {
+        try {
+            if( response != null ) {
+                EntityUtils.consume(response.getEntity());
+            }
+        } catch (IOException e) {
+            req.abort();
+        } finally {
+            ConnectionLeakDetector.released(req);
+        }
+    }
+
+    /**
+     * Sent http request to the server. The caller owns the returned response and must hand it
+     * to {@link #releaseResponse(HttpRequestBase, HttpResponse)} once done with it. Failed attempts
+     * are tried again for as long as the provider's {@link RetryPolicy} allows.
+     * @return Http response
+     * @throws CloudException
+     */
+    private static HttpResponse sendRequest(org.dasein.cloud.digitalocean.DigitalOcean provider, HttpRequestBase req, RESTMethod method, DigitalOceanAction action, RateLimiter.Lane lane) throws CloudException, InternalException {
+        try {
             HttpClient httpClient = provider.getClient();
+            RateLimiter limiter = getRateLimiter(provider);
 
             if (wire.isDebugEnabled()) {
                 wire.debug("");
@@ -176,65 +346,118 @@ public class DigitalOceanModelFactory {
                 }
                 wire.debug("");
 
-                if (requestEntity != null) {
+                if (req instanceof HttpEntityEnclosingRequestBase && ((HttpEntityEnclosingRequestBase) req).getEntity() != null) {
                     try {
-                        wire.debug(EntityUtils.toString(requestEntity));
+                        wire.debug(EntityUtils.toString(((HttpEntityEnclosingRequestBase) req).getEntity()));
                         wire.debug("");
                     } catch (IOException ignore) {
                     }
                 }
             }
 
-            HttpResponse response = null;
-            int retryCount = 0;
-
-            while (retryCount < 6) {
-                response = httpClient.execute(req);
-
-                if (wire.isDebugEnabled()) {
-                    wire.debug(response.getStatusLine().toString());
+            RetryPolicy retryPolicy = provider.getRetryPolicy();
+            boolean idempotent = (action == null ? method != RESTMethod.POST : action.isIdempotent());
+            HttpResponse response;
+            int attempt = 0;
+
+            while (true) {
+                IOException failure = null;
+
+                response = null;
+                attempt++;
+                limiter.acquire(lane);
+                try {
+                    response = httpClient.execute(req);
+                    limiter.update(response);
+                } catch (IOException e) {
+                    failure = e;
+                } finally {
+                    limiter.release();
+                }
+                if (response != null) {
+                    ConnectionLeakDetector.acquired(req);
+                    if (wire.isDebugEnabled()) {
+                        wire.debug(response.getStatusLine().toString());
+                    }
                 }
 
-                if (method == RESTMethod.DELETE) {
-                    if ((response.getStatusLine().getStatusCode() == 204)) {
-                        break;
-                    } else {
-                        retryCount++;
-                        Thread.sleep(5000);
+                long delay = retryPolicy.getRetryDelay(method, idempotent, attempt, response, failure);
+                if (delay < 0) {
+                    if (failure != null) {
+                        throw failure;
                     }
-                } else {
+                    // success or a permanent error, the caller deals with either
                     break;
                 }
-            }
-            if (method == RESTMethod.DELETE && (response.getStatusLine().getStatusCode() != 204)) {
-                //Error occurred
-                throw new CloudException("Delete method returned unexpected code, despite retrying.");
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Retrying " + req.getRequestLine() + " in " + delay + "ms after " + (failure != null ? failure.toString() : response.getStatusLine().toString()));
+                }
+                // give the connection of the failed attempt back before waiting to try again
+                if (response != null) {
+                    releaseResponse(req, response);
+                } else {
+                    req.abort();
+                }
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                req.reset();
             }
             return response;
-        } catch (JSONException e) {
-            throw new CloudException("Problem sending request.", e);
         } catch (InterruptedException e) {
+            req.abort();
+            ConnectionLeakDetector.released(req);
+            Thread.currentThread().interrupt();
             throw new CloudException("Problem sending request.", e);
         } catch (ClientProtocolException e) {
+            req.abort();
+            ConnectionLeakDetector.released(req);
             throw new CloudException("Problem sending request.", e);
         } catch (IOException e) {
+            req.abort();
+            ConnectionLeakDetector.released(req);
             throw new CloudException("Problem sending request.", e);
-        } finally {
-            try {
-//                req.releaseConnection();
-            } catch (Exception e) {
-            }
-
         }
     }
 
+    /**
+     * Provides the scheduler pacing the requests made with the provider's API token, which also reports the
+     * remaining rate limit budget, queue depth and wait times.
+     * @param provider the provider whose token to look up
+     * @return the scheduler for the provider's token
+     */
+    public static RateLimiter getRateLimiter(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider) {
+        return RateLimiter.getInstance((String) provider.getContext().getConfigurationValue("token"));
+    }
+
     public static DigitalOceanRestModel getModel(org.dasein.cloud.digitalocean.DigitalOcean provider, DigitalOcean model) throws CloudException, InternalException {
         return getModel(provider, model, 0);
     }
 
 	public static DigitalOceanRestModel getModel(org.dasein.cloud.digitalocean.DigitalOcean provider, DigitalOcean model, int page) throws CloudException, InternalException {
+		return getModel(provider, model, null, page);
+	}
+
+	/**
+	 * Fetches a page of a listing narrowed down by the server.
+	 * @param query additional query parameters, already URL encoded (e.g. {@code tag_name=web}), or null; a
+	 * {@code per_page} parameter overrides the configured page size
+	 * @param page the page to fetch, 0 to let DigitalOcean pick the first one
+	 */
+	public static DigitalOceanRestModel getModel(org.dasein.cloud.digitalocean.DigitalOcean provider, DigitalOcean model, String query, int page) throws CloudException, InternalException {
+		return getModel(provider, model, query, page, Projection.FULL);
+	}
+
+	/**
+	 * Fetches a page of a listing, reading only the parts of the items the caller needs.
+	 * @param query additional query parameters, already URL encoded (e.g. {@code tag_name=web}), or null; a
+	 * {@code per_page} parameter overrides the configured page size
+	 * @param page the page to fetch, 0 to let DigitalOcean pick the first one
+	 * @param projection the parts of the droplets to read
+	 */
+	public static DigitalOceanRestModel getModel(org.dasein.cloud.digitalocean.DigitalOcean provider, DigitalOcean model, String query, int page, Projection projection) throws CloudException, InternalException {
 		if( logger.isTraceEnabled() ) {
-            logger.trace("ENTER - " + DigitalOceanModelFactory.class.getName() + ".getModel(" + provider + "," +  model + ")");
+            logger.trace("ENTER - " + DigitalOceanModelFactory.class.getName() + ".getModel(" + provider + "," +  model + "," + query + ")");
         }
 			
 		String token = (String) provider.getContext().getConfigurationValue("token");
@@ -242,21 +465,20 @@ public class DigitalOceanModelFactory {
 		try {
             StringBuilder urlBuilder = new StringBuilder();
             urlBuilder.append(getApiUrl(provider)).append(getEndpoint(model));
-            if( page > 0 ) {
-                if( urlBuilder.indexOf("?") > 0 ) {
-                    urlBuilder.append('&');
+            if( query != null ) {
+                urlBuilder.append(urlBuilder.indexOf("?") > 0 ? '&' : '?').append(query);
+            }
+            if( model.isPaginated() ) {
+                if( query == null || !(query.startsWith("per_page=") || query.contains("&per_page=")) ) {
+                    urlBuilder.append(urlBuilder.indexOf("?") > 0 ? '&' : '?');
+                    urlBuilder.append("per_page=").append(model.getPageSize(provider));
                 }
-                else {
-                    urlBuilder.append('?');
+                if( page > 0 ) {
+                    urlBuilder.append("&page=").append(page);
                 }
-                urlBuilder.append("page=").append(page);
             }
-			String responseText = performHttpRequest(provider, RESTMethod.GET, token, urlBuilder.toString());
-			JSONObject jso = new JSONObject(responseText);
-								
-			return model.fromJson(jso);
-        } catch (JSONException e) {
-            throw new CloudException(e);
+			// pages of a listing give way to lookups and actions when the rate limit budget runs low
+			return performHttpRequest(provider, RESTMethod.GET, token, urlBuilder.toString(), page > 0 ? RateLimiter.Lane.BACKGROUND : RateLimiter.Lane.INTERACTIVE, model.project(projection));
 		} finally {
 			if( logger.isTraceEnabled() ) {
 	            logger.trace("EXIT - " + DigitalOceanModelFactory.class.getName() + ".getModel(" + provider + "," + model + ")");
@@ -272,11 +494,7 @@ public class DigitalOceanModelFactory {
 
 		String token = (String) provider.getContext().getConfigurationValue("token");
 		try {
-			String s = performHttpRequest(provider, RESTMethod.GET, token,  getApiUrl(provider) + getEndpoint(model, id));
-			JSONObject jso = new JSONObject(s);
-			return model.fromJson(jso);				
-		} catch (JSONException e) {
-            throw new CloudException(e);
+			return performHttpRequest(provider, RESTMethod.GET, token,  getApiUrl(provider) + getEndpoint(model, id), RateLimiter.Lane.INTERACTIVE, model);
         } finally {
 			if( logger.isTraceEnabled() ) {
 	            logger.trace("EXIT - " + DigitalOceanModelFactory.class.getName() + ".getModel(" + provider + "," + model + ")");
@@ -319,19 +537,13 @@ public class DigitalOceanModelFactory {
 
 		String token = (String) provider.getContext().getConfigurationValue("token");
 
-		String s = performHttpRequest(provider, doa.getRestMethod(), token,  getApiUrl(provider) + getEndpoint(doa, id), doa);
-		
+		//Delete have no output...
+		IDigitalOcean returnObject = (doa.getRestMethod() == RESTMethod.DELETE ? null : DigitalOcean.ACTION);
+
 		try {
-			//Delete have no output...
-			if (doa.getRestMethod() == RESTMethod.DELETE) {
-				return null;
-			}
-			
-			JSONObject jso = new JSONObject(s);
-			Action result = (Action) DigitalOcean.ACTION.fromJson(jso);				
-			
-			if (!result.isError()) {
-				return (Action) DigitalOcean.ACTION.fromJson(jso);				
+			Action result = (Action) performHttpRequest(provider, doa.getRestMethod(), token,  getApiUrl(provider) + getEndpoint(doa, id), doa, RateLimiter.Lane.INTERACTIVE, returnObject);
+			if (result == null || !result.isError()) {
+				return result;
 			} else {
 				//Not sure why in API V2 they removed the message of errors... we are now left blind
 				throw new CloudException("An error occurred while performing " + doa + " with parameters : " + doa.getParameters());
@@ -345,6 +557,72 @@ public class DigitalOceanModelFactory {
 		}
 	}
 	
+	/**
+	 * Performs an action on every droplet carrying a tag with a single request.
+	 * @param doa the action to perform, addressed by tag (see {@link org.dasein.cloud.digitalocean.models.actions.droplet.Tagged})
+	 * @param tagName the tag of the droplets to act on
+	 * @return one action per droplet acted on
+	 */
+	public static List<Action> performTagAction(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, DigitalOceanAction doa, String tagName) throws CloudException, InternalException {
+		if( logger.isTraceEnabled() ) {
+            logger.trace("ENTER - " + DigitalOceanModelFactory.class.getName() + ".performTagAction(" + provider + "," + doa + "," + tagName + ")");
+		}
+
+		String token = (String) provider.getContext().getConfigurationValue("token");
+		try {
+			String endpoint = getApiUrl(provider) + getEndpoint(doa, URLEncoder.encode(tagName, "UTF-8"));
+			Actions actions = (Actions) performHttpRequest(provider, doa.getRestMethod(), token, endpoint, doa, RateLimiter.Lane.INTERACTIVE, DigitalOcean.ACTIONS);
+			return (actions == null ? new ArrayList<Action>() : actions.getActions());
+		} catch (UnsupportedEncodingException e) {
+			throw new InternalException(e);
+		} finally {
+			if( logger.isTraceEnabled() ) {
+	            logger.trace("EXIT - " + DigitalOceanModelFactory.class.getName() + ".performTagAction(" + provider + "," + doa + "," + tagName + ")");
+	        }
+		}
+	}
+
+	/**
+	 * Tags droplets with a single request, creating the tag first.
+	 * @param tagName the name of the tag
+	 * @param dropletIds the droplets to tag
+	 */
+	public static void tagDroplets(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull String tagName, @Nonnull String... dropletIds) throws CloudException, InternalException {
+		try {
+			performAction(provider, new org.dasein.cloud.digitalocean.models.actions.tag.Create(tagName), (IDigitalOcean) null);
+		} catch (CloudException e) {
+			// the tag already exists
+			if( e.getHttpCode() != 422 ) {
+				throw e;
+			}
+		}
+		performAction(provider, new TagResources(dropletIds), encode(tagName));
+	}
+
+	/**
+	 * Removes a tag from droplets with a single request. The tag itself is left in place.
+	 * @param tagName the name of the tag
+	 * @param dropletIds the droplets to untag
+	 */
+	public static void untagDroplets(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull String tagName, @Nonnull String... dropletIds) throws CloudException, InternalException {
+		try {
+			performAction(provider, new UntagResources(dropletIds), encode(tagName));
+		} catch (CloudException e) {
+			// the tag does not exist, so no droplet carries it
+			if( e.getHttpCode() != 404 ) {
+				throw e;
+			}
+		}
+	}
+
+	private static String encode(String value) throws InternalException {
+		try {
+			return URLEncoder.encode(value, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new InternalException(e);
+		}
+	}
+
 	public static DigitalOceanRestModel performAction(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, DigitalOceanAction doa, IDigitalOcean returnObject) throws CloudException, InternalException {
 
 		if( logger.isTraceEnabled() ) {
@@ -353,13 +631,8 @@ public class DigitalOceanModelFactory {
 
 		String token = (String) provider.getContext().getConfigurationValue("token");
         
-		String s = performHttpRequest(provider, doa.getRestMethod(), token,  getApiUrl(provider) + getEndpoint(doa), doa);
-		
-		try {			
-			JSONObject jso = new JSONObject(s);
-			return returnObject.fromJson(jso);				
-		} catch (JSONException e) {
-            throw new CloudException(e);
+		try {
+			return performHttpRequest(provider, doa.getRestMethod(), token,  getApiUrl(provider) + getEndpoint(doa), doa, RateLimiter.Lane.INTERACTIVE, returnObject);
         } finally {
 			if( logger.isTraceEnabled() ) {
 	            logger.trace("EXIT - " + DigitalOceanModelFactory.class.getName() + ".performAction(" + provider.getCloudName() + "," + returnObject + ")");
@@ -382,9 +655,14 @@ public class DigitalOceanModelFactory {
 
         String token = (String) provider.getContext().getConfigurationValue("token");
 
+        HttpRequestBase req = createRequest(RESTMethod.HEAD, token, getApiUrl(provider) + "v2/" + actionUrl, null);
+        HttpResponse response = null;
         try {
-            return sendRequest(provider, RESTMethod.HEAD, token,  getApiUrl(provider) + "v2/" + actionUrl, null).getStatusLine().getStatusCode();
+            response = sendRequest(provider, req, RESTMethod.HEAD, null, RateLimiter.Lane.INTERACTIVE);
+            return response.getStatusLine().getStatusCode();
         } finally {
+            releaseResponse(req, response);
+            ConnectionLeakDetector.check(provider, "HEAD " + actionUrl);
             if( logger.isTraceEnabled() ) {
                 logger.trace("EXIT - " + DigitalOceanModelFactory.class.getName() + ".checkAction(" + provider.getCloudName() + ")");
             }
@@ -392,13 +670,22 @@ public class DigitalOceanModelFactory {
     }
 
     public static Droplet createInstance(org.dasein.cloud.digitalocean.DigitalOcean provider, String dropletName, String sizeId, String theImageId, String regionId, String bootstrapKey, Map<String, Object> extraParameters) throws CloudException, InternalException {
+        return createInstances(provider, Collections.singletonList(dropletName), sizeId, theImageId, regionId, bootstrapKey, extraParameters).get(0);
+    }
+
+    /**
+     * Creates identical droplets, up to {@link Create#MAX_NAMES} of them, with a single request.
+     * @param dropletNames the names of the droplets, one droplet is created per name
+     * @return the new droplets
+     */
+    public static List<Droplet> createInstances(org.dasein.cloud.digitalocean.DigitalOcean provider, List<String> dropletNames, String sizeId, String theImageId, String regionId, String bootstrapKey, Map<String, Object> extraParameters) throws CloudException, InternalException {
 
 		if( logger.isTraceEnabled() ) {
-            logger.trace("ENTER - " + DigitalOceanModelFactory.class.getName() + ".createInstance(" + dropletName + "," + sizeId + "," + theImageId + "," + regionId + "," + extraParameters + ")");
+            logger.trace("ENTER - " + DigitalOceanModelFactory.class.getName() + ".createInstances(" + dropletNames + "," + sizeId + "," + theImageId + "," + regionId + "," + extraParameters + ")");
 		}
 
         try {
-			Create action = new Create(dropletName, sizeId, theImageId, regionId);
+			Create action = new Create(dropletNames, sizeId, theImageId, regionId);
 			List<String> ssh_key_ids = new ArrayList<String>();
 			//Extra parameter is not part of DaseinCloud.... as its cloud specific
 			if (extraParameters != null) {
@@ -430,11 +717,16 @@ public class DigitalOceanModelFactory {
 			}
 			action.setSshKeyIds(ssh_key_ids);
 			
-			return (Droplet) performAction(provider, action, DigitalOcean.DROPLET);
+			if( action.getCount() == 1 ) {
+				List<Droplet> droplets = new ArrayList<Droplet>();
+				droplets.add((Droplet) performAction(provider, action, DigitalOcean.DROPLET));
+				return droplets;
+			}
+			return ((Droplets) performAction(provider, action, DigitalOcean.DROPLETS)).getDroplets();
 		} finally {
 				
 			if( logger.isTraceEnabled() ) {
-	            logger.trace("EXIT - " + DigitalOceanModelFactory.class.getName() + ".createInstance(" + dropletName + "," + sizeId + "," + theImageId + "," + regionId + "," + extraParameters + ")");
+	            logger.trace("EXIT - " + DigitalOceanModelFactory.class.getName() + ".createInstances(" + dropletNames + "," + sizeId + "," + theImageId + "," + regionId + "," + extraParameters + ")");
 			}
 		}
 	}
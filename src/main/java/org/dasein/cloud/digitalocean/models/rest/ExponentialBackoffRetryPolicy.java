@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.impl.cookie.DateParseException;
+import org.apache.http.impl.cookie.DateUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.util.Random;
+
+/**
+ * The default {@link RetryPolicy}: capped exponential backoff with full jitter. The n-th retry waits a random time
+ * between zero and {@code min(maxDelay, baseDelay * 2^(n-1))}, so a transient fault typically costs tens of
+ * milliseconds while callers hitting the same fault do not retry in lock step.
+ * <p>The following failures are retried:</p>
+ * <ul>
+ *     <li>429 (throttled) for any request, since a throttled request was not carried out. The wait honors
+ *     {@code Retry-After}, or else {@code RateLimit-Reset}, and the request fails at once when that is further away
+ *     than the longest wait allowed.</li>
+ *     <li>500, 502, 503 and 504 as well as timeouts and dropped connections, for idempotent requests only.</li>
+ *     <li>Failures to connect for any request, since nothing was sent.</li>
+ * </ul>
+ * <p>Any other status, such as 404 or 422, is permanent.</p>
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+    static public final int  DEFAULT_MAX_ATTEMPTS = 5;
+    static public final long DEFAULT_BASE_DELAY   = 50L;
+    static public final long DEFAULT_MAX_DELAY    = 5000L;
+    static public final long DEFAULT_MAX_WAIT     = 60000L;
+
+    private final int    maxAttempts;
+    private final long   baseDelay;
+    private final long   maxDelay;
+    private final long   maxWait;
+    private final Random random = new Random();
+
+    public ExponentialBackoffRetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, DEFAULT_MAX_WAIT);
+    }
+
+    /**
+     * @param maxAttempts the most attempts made for one request, including the first
+     * @param baseDelay the upper bound (in milliseconds) of the wait before the first retry
+     * @param maxDelay the upper bound (in milliseconds) of the backoff wait before any retry
+     * @param maxWait the longest wait (in milliseconds) a server may ask for through its headers
+     */
+    public ExponentialBackoffRetryPolicy(int maxAttempts, long baseDelay, long maxDelay, long maxWait) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public long getRetryDelay(@Nonnull RESTMethod method, boolean idempotent, int attempt, @Nullable HttpResponse response, @Nullable IOException error) {
+        if( attempt >= maxAttempts ) {
+            return -1;
+        }
+        if( response != null ) {
+            int status = response.getStatusLine().getStatusCode();
+
+            // a throttled request was not carried out, so even a POST can be sent again
+            if( status == 429 || (idempotent && (status == 500 || status == 502 || status == 503 || status == 504)) ) {
+                long requested = getRequestedDelay(response);
+
+                if( requested > maxWait ) {
+                    return -1;
+                }
+                return Math.max(requested, getBackoff(attempt));
+            }
+            return -1;
+        }
+        if( error != null ) {
+            if( error instanceof ConnectException || error instanceof ConnectTimeoutException ) {
+                // the request never left
+                return getBackoff(attempt);
+            }
+            if( idempotent && (error instanceof InterruptedIOException || error instanceof NoHttpResponseException || error instanceof SocketException) ) {
+                return getBackoff(attempt);
+            }
+        }
+        return -1;
+    }
+
+    private long getBackoff(int attempt) {
+        long ceiling = Math.min(maxDelay, baseDelay << Math.min(attempt - 1, 30));
+        synchronized( random ) {
+            return (long) (random.nextDouble() * ceiling);
+        }
+    }
+
+    /**
+     * Reads how long the server asked clients to wait, from {@code Retry-After} (seconds or an HTTP date) or else
+     * from {@code RateLimit-Reset} (epoch seconds).
+     * @param response the response to inspect
+     * @return the requested wait in milliseconds, 0 if none
+     */
+    private long getRequestedDelay(@Nonnull HttpResponse response) {
+        long now = System.currentTimeMillis();
+        Header header = response.getFirstHeader("Retry-After");
+
+        if( header != null && header.getValue() != null ) {
+            String value = header.getValue().trim();
+            try {
+                return Math.max(0L, Long.parseLong(value) * 1000L);
+            }
+            catch( NumberFormatException e ) {
+                try {
+                    return Math.max(0L, DateUtils.parseDate(value).getTime() - now);
+                }
+                catch( DateParseException ignore ) {
+                    // fall back to the rate limit headers
+                }
+            }
+        }
+        header = response.getFirstHeader("RateLimit-Reset");
+        if( header != null && header.getValue() != null && response.getStatusLine().getStatusCode() == 429 ) {
+            try {
+                return Math.max(0L, Long.parseLong(header.getValue().trim()) * 1000L - now);
+            }
+            catch( NumberFormatException ignore ) {
+                // no hint
+            }
+        }
+        return 0L;
+    }
+}
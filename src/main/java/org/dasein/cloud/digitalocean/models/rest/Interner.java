@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.dasein.cloud.digitalocean.models.Image;
+import org.dasein.cloud.digitalocean.models.Region;
+import org.dasein.cloud.digitalocean.models.Size;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Canonicalizes what droplets have in common while they are parsed. Every droplet embeds its own copy of its
+ * region (with the sizes and features of the region), size (with its regions) and image, and repeats the same
+ * slugs, statuses and distributions; this factory hands out one shared instance for every set of equal values
+ * instead, so a large inventory holds a dozen regions and sizes rather than one per droplet.
+ * <p>The canonical instances live in small fixed size tables: a value replaces whatever occupied its slot, which
+ * keeps memory bounded without any eviction bookkeeping at the cost of the odd duplicate. Only strings up to
+ * {@value #MAX_STRING_LENGTH} characters are interned, longer ones are rarely repeated.</p>
+ * <p>Regions, sizes and images are shared by every droplet holding an equal value, so they are marked as shared
+ * before they are handed out (see {@link Size#share()} and {@link Image#share()}) and refuse to be changed from
+ * then on.</p>
+ */
+public class Interner implements TypeAdapterFactory {
+    static private final int MAX_STRING_LENGTH = 64;
+    static private final int STRING_SLOTS      = 4096;
+    static private final int OBJECT_SLOTS      = 512;
+
+    static private final AtomicReferenceArray<String> strings = new AtomicReferenceArray<String>(STRING_SLOTS);
+    static private final AtomicReferenceArray<Object> objects = new AtomicReferenceArray<Object>(OBJECT_SLOTS);
+
+    static private final AtomicLong lookups = new AtomicLong();
+    static private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * @param value a string just parsed
+     * @return an equal string, shared if one was seen recently
+     */
+    static @Nullable String intern(@Nullable String value) {
+        if( value == null || value.length() > MAX_STRING_LENGTH ) {
+            return value;
+        }
+        return canonical(strings, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    static private @Nonnull <T> T canonical(@Nonnull AtomicReferenceArray<? super T> table, @Nonnull T value) {
+        int h = value.hashCode();
+        int slot = (h ^ (h >>> 16)) & (table.length() - 1);
+        Object current = table.get(slot);
+
+        lookups.incrementAndGet();
+        if( value.equals(current) ) {
+            hits.incrementAndGet();
+            return (T) current;
+        }
+        table.set(slot, value);
+        return value;
+    }
+
+    static private void share(@Nonnull Object value) {
+        if( value instanceof Size ) {
+            ((Size) value).share();
+        }
+        else if( value instanceof Image ) {
+            ((Image) value).share();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+
+        if( raw == String.class ) {
+            return (TypeAdapter<T>) new TypeAdapter<String>() {
+                @Override
+                public void write(JsonWriter out, String value) throws IOException {
+                    out.value(value);
+                }
+
+                @Override
+                public String read(JsonReader in) throws IOException {
+                    JsonToken token = in.peek();
+                    if( token == JsonToken.NULL ) {
+                        in.nextNull();
+                        return null;
+                    }
+                    if( token == JsonToken.BOOLEAN ) {
+                        return Boolean.toString(in.nextBoolean());
+                    }
+                    return intern(in.nextString());
+                }
+            };
+        }
+        if( raw == Region.class || raw == Size.class || raw == Image.class ) {
+            final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+
+            return new TypeAdapter<T>() {
+                @Override
+                public void write(JsonWriter out, T value) throws IOException {
+                    delegate.write(out, value);
+                }
+
+                @Override
+                public T read(JsonReader in) throws IOException {
+                    T value = delegate.read(in);
+                    if( value == null ) {
+                        return null;
+                    }
+                    // marked before it is published, any instance in the table may be handed out
+                    share(value);
+                    return canonical(objects, value);
+                }
+            };
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of parsed values looked up in the tables
+     */
+    static public long getLookupCount() {
+        return lookups.get();
+    }
+
+    /**
+     * @return the number of parsed values replaced by a shared instance
+     */
+    static public long getHitCount() {
+        return hits.get();
+    }
+}
@@ -0,0 +1,367 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.util.APITrace;
+import org.dasein.util.JiteratorLoadException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Lazily walks every page of a paginated DigitalOcean listing. Only the pages within a small window ahead of the
+ * iteration are requested and held, so memory stays flat regardless of the size of the account.
+ * <p>Once the first page reports the size of the listing ({@code meta.total}), the following pages are prefetched
+ * in parallel on the provider's {@link org.dasein.cloud.digitalocean.DigitalOcean#getExecutor() executor}, at most
+ * {@code pageFetchConcurrency} (custom property, default {@value #DEFAULT_PAGE_FETCH_CONCURRENCY}) at a time, and
+ * handed out strictly in page order. Setting the property to 1 restores page-by-page fetching.</p>
+ * <p>An iteration stopped early should be {@link PageIterator#close() closed}: this cancels the prefetched pages no
+ * worker has picked up yet. An iterator that is merely abandoned requests no new pages, but the pages already
+ * scheduled ahead of it (up to {@code pageFetchConcurrency} requests) are still fetched and count against the
+ * account's rate limit.</p>
+ * <p>The first page is fetched when the iterable is created so that authentication and other request errors
+ * surface from the listing call itself, as they did when listings were fully loaded up front. Failures fetching
+ * later pages are thrown from the iterator as a {@link JiteratorLoadException}, like other lazily loaded Dasein
+ * results.</p>
+ * <p>Only the first call to {@link #iterator()} reuses the page fetched up front; any later iteration starts over
+ * and requests the first page again.</p>
+ * @param <S> the type of the items on the DigitalOcean pages
+ * @param <T> the type of the items produced by this iterable
+ */
+public abstract class PagedIterable<S extends DigitalOceanRestModel, T> implements Iterable<T> {
+    static public final int DEFAULT_PAGE_FETCH_CONCURRENCY = 4;
+
+    /**
+     * Lists the items of a paginated endpoint as they are returned by DigitalOcean.
+     * @param provider the provider to list with
+     * @param model the paginated endpoint
+     * @param itemType the type of the items on the pages
+     * @param <S> the type of the items on the pages
+     * @return the items of the listing
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    static public @Nonnull <S extends DigitalOceanRestModel> PagedIterable<S, S> of(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull DigitalOcean model, @Nonnull Class<S> itemType) throws CloudException, InternalException {
+        return of(provider, model, Projection.FULL, itemType);
+    }
+
+    /**
+     * Lists the items of a paginated endpoint, reading only the parts of the items the caller needs.
+     * @param provider the provider to list with
+     * @param model the paginated endpoint
+     * @param projection the parts of the items to read
+     * @param itemType the type of the items on the pages
+     * @param <S> the type of the items on the pages
+     * @return the items of the listing
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    static public @Nonnull <S extends DigitalOceanRestModel> PagedIterable<S, S> of(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull DigitalOcean model, @Nonnull Projection projection, @Nonnull Class<S> itemType) throws CloudException, InternalException {
+        return new PagedIterable<S, S>(provider, model, null, projection, itemType) {
+            @Override
+            protected S convert(@Nonnull S item) {
+                return item;
+            }
+        };
+    }
+
+    private final org.dasein.cloud.digitalocean.DigitalOcean provider;
+    private final DigitalOcean                               model;
+    private final Class<S>                                   itemType;
+    private final String                                     query;
+    private final Projection                                 projection;
+    private final int                                        concurrency;
+    private volatile PaginatedModel                          firstPage;
+
+    public PagedIterable(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull DigitalOcean model, @Nonnull Class<S> itemType) throws CloudException, InternalException {
+        this(provider, model, null, itemType);
+    }
+
+    /**
+     * Walks a listing narrowed down by the server, so that items which would be filtered out are never transferred.
+     * @param provider the provider to list with
+     * @param model the paginated endpoint
+     * @param query additional query parameters, already URL encoded (e.g. {@code tag_name=web}), or null
+     * @param itemType the type of the items on the pages
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public PagedIterable(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull DigitalOcean model, @Nullable String query, @Nonnull Class<S> itemType) throws CloudException, InternalException {
+        this(provider, model, query, Projection.FULL, itemType);
+    }
+
+    /**
+     * Walks a listing reading only the parts of the items the caller needs.
+     * @param provider the provider to list with
+     * @param model the paginated endpoint
+     * @param query additional query parameters, already URL encoded (e.g. {@code tag_name=web}), or null
+     * @param projection the parts of the items to read
+     * @param itemType the type of the items on the pages
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public PagedIterable(@Nonnull org.dasein.cloud.digitalocean.DigitalOcean provider, @Nonnull DigitalOcean model, @Nullable String query, @Nonnull Projection projection, @Nonnull Class<S> itemType) throws CloudException, InternalException {
+        this.provider = provider;
+        this.model = model;
+        this.itemType = itemType;
+        this.query = query;
+        this.projection = projection;
+        this.concurrency = provider.getIntProperty("pageFetchConcurrency", DEFAULT_PAGE_FETCH_CONCURRENCY);
+        this.firstPage = fetch(1);
+    }
+
+    /**
+     * Converts an item of the listing into the value produced by this iterable.
+     * @param item the item as returned by DigitalOcean
+     * @return the converted value or null if the item should be skipped
+     * @throws CloudException an error occurred in the cloud provider
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    protected abstract @Nullable T convert(@Nonnull S item) throws CloudException, InternalException;
+
+    /**
+     * Starts an iteration over the listing. The first iterator reuses the page fetched when this iterable was
+     * created, every other one fetches the listing again from the first page.
+     * @return an iterator that should be closed if it is not walked to the end
+     */
+    @Override
+    public @Nonnull PageIterator iterator() {
+        PaginatedModel page = firstPage;
+        // only the first iterator gets the page fetched up front, any other iteration starts over
+        firstPage = null;
+        return new PageIterator(page);
+    }
+
+    private @Nonnull PaginatedModel fetch(int page) throws CloudException, InternalException {
+        APITrace.begin(provider, "listPage." + model.name());
+        try {
+            return (PaginatedModel) DigitalOceanModelFactory.getModel(provider, model, query, page, projection);
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * A page requested ahead of the iteration.
+     */
+    private class PageFetch extends FutureTask<PaginatedModel> {
+        private final int page;
+
+        private PageFetch(final int page) {
+            super(new Callable<PaginatedModel>() {
+                @Override
+                public PaginatedModel call() throws Exception {
+                    return fetch(page);
+                }
+            });
+            this.page = page;
+        }
+
+        /**
+         * Waits for the page. A page no worker has picked up yet is fetched by the calling thread instead, so an
+         * iteration never waits on workers that are themselves busy waiting.
+         * @return the page
+         * @throws CloudException an error occurred in the cloud provider
+         * @throws InternalException an error occurred within Dasein Cloud
+         */
+        private @Nonnull PaginatedModel await() throws CloudException, InternalException {
+            if( cancel(false) ) {
+                return fetch(page);
+            }
+            try {
+                return get();
+            }
+            catch( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new InternalException(e);
+            }
+            catch( ExecutionException e ) {
+                Throwable cause = e.getCause();
+
+                if( cause instanceof CloudException ) {
+                    throw (CloudException) cause;
+                }
+                else if( cause instanceof InternalException ) {
+                    throw (InternalException) cause;
+                }
+                else if( cause instanceof RuntimeException ) {
+                    throw (RuntimeException) cause;
+                }
+                throw new InternalException(cause);
+            }
+        }
+    }
+
+    public class PageIterator implements Iterator<T>, Closeable {
+        private final LinkedList<PageFetch> pending = new LinkedList<PageFetch>();
+        private List<? extends DigitalOceanRestModel> items;
+        private int     index;
+        private int     page;
+        private int     lastPage;
+        private int     pageSize;
+        private int     fetched;
+        private int     total;
+        private boolean done;
+        private T       next;
+
+        private PageIterator(@Nullable PaginatedModel firstPage) {
+            if( firstPage != null ) {
+                accept(firstPage);
+                page = 1;
+                prefetch();
+            }
+        }
+
+        private void accept(@Nonnull PaginatedModel current) {
+            items = current.getItems();
+            index = 0;
+            total = current.getTotal();
+            fetched += items.size();
+            if( pageSize == 0 && items.size() < total ) {
+                // the first page is always a full one
+                pageSize = items.size();
+            }
+            if( pageSize > 0 ) {
+                // the listing may grow while it is walked, so keep following the latest total
+                lastPage = Math.max(lastPage, (total + pageSize - 1) / pageSize);
+            }
+        }
+
+        /**
+         * Schedules the pages following the current one, up to the configured number of pages in flight.
+         */
+        private void prefetch() {
+            if( concurrency < 2 || pageSize < 1 ) {
+                return;
+            }
+            int requested = page + pending.size();
+
+            while( pending.size() < concurrency && requested < lastPage ) {
+                PageFetch f = new PageFetch(++requested);
+
+                try {
+                    provider.getExecutor().execute(f);
+                }
+                catch( RejectedExecutionException e ) {
+                    // the provider is closing, the page will be fetched inline
+                }
+                pending.add(f);
+            }
+        }
+
+        private boolean hasMorePages() {
+            return (page == 0 || !pending.isEmpty() || (items.size() > 0 && total > 0 && fetched < total));
+        }
+
+        private @Nonnull PaginatedModel nextPage() throws CloudException, InternalException {
+            PageFetch f = pending.poll();
+
+            if( f == null ) {
+                return fetch(page + 1);
+            }
+            return f.await();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while( next == null && !done ) {
+                if( items != null && index < items.size() ) {
+                    S item = itemType.cast(items.get(index++));
+                    try {
+                        next = convert(item);
+                    }
+                    catch( CloudException e ) {
+                        throw new JiteratorLoadException(e);
+                    }
+                    catch( InternalException e ) {
+                        throw new JiteratorLoadException(e);
+                    }
+                }
+                else if( hasMorePages() ) {
+                    try {
+                        items = null;
+                        accept(nextPage());
+                        page++;
+                        if( items.isEmpty() ) {
+                            // the listing shrank while it was walked, anything past this page is empty as well
+                            close();
+                        }
+                        else {
+                            prefetch();
+                        }
+                    }
+                    catch( CloudException e ) {
+                        close();
+                        throw new JiteratorLoadException(e);
+                    }
+                    catch( InternalException e ) {
+                        close();
+                        throw new JiteratorLoadException(e);
+                    }
+                }
+                else {
+                    close();
+                }
+            }
+            return (next != null);
+        }
+
+        @Override
+        public T next() {
+            if( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            T value = next;
+            next = null;
+            return value;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("DigitalOcean listings are read only");
+        }
+
+        /**
+         * Stops the iteration, no further pages will be requested and prefetched pages no worker has started on yet
+         * are cancelled. Requests already in flight complete, but their pages are dropped.
+         */
+        @Override
+        public void close() {
+            done = true;
+            items = null;
+            for( PageFetch f : pending ) {
+                f.cancel(false);
+            }
+            pending.clear();
+        }
+    }
+}
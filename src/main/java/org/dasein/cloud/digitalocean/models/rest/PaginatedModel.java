@@ -1,5 +1,9 @@
 package org.dasein.cloud.digitalocean.models.rest;
 
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Created by stas on 08/07/15.
  */
@@ -15,4 +19,11 @@ public class PaginatedModel implements DigitalOceanRestModel {
         return total;
     }
 
+    /**
+     * @return the items carried by this page
+     */
+    public @Nonnull List<? extends DigitalOceanRestModel> getItems() {
+        return Collections.emptyList();
+    }
+
 }
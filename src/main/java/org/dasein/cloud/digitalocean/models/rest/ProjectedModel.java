@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import com.google.gson.stream.JsonReader;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.digitalocean.models.IDigitalOcean;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * An endpoint whose responses are read through a {@link Projection}.
+ */
+public class ProjectedModel implements IDigitalOcean {
+    private final DigitalOcean model;
+    private final Projection   projection;
+
+    ProjectedModel(@Nonnull DigitalOcean model, @Nonnull Projection projection) {
+        this.model = model;
+        this.projection = projection;
+    }
+
+    public @Nonnull DigitalOcean getModel() {
+        return model;
+    }
+
+    public @Nonnull Projection getProjection() {
+        return projection;
+    }
+
+    @Override
+    public DigitalOceanRestModel fromJson(JsonReader reader) throws IOException, CloudException {
+        return model.fromJson(reader, projection);
+    }
+
+    @Override
+    public String toString() {
+        return model.toString();
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+/**
+ * How much of a droplet a call needs. Fields left out of a projection are skipped by the streaming reader without
+ * being materialized, which matters for listings that are walked often but only read a few fields of each droplet.
+ * Projections only apply to droplets, other models are always read in full.
+ */
+public enum Projection {
+    /**
+     * Every field the models know.
+     */
+    FULL,
+    /**
+     * What a Dasein virtual machine is built from: snapshot ids are skipped, and the nested size and region are
+     * reduced to their slugs and the nested image to its id, name and distribution.
+     */
+    INSTANCE,
+    /**
+     * Only the id and status of the droplet.
+     */
+    STATUS
+}
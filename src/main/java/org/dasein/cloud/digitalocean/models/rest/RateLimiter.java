@@ -0,0 +1,308 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.digitalocean.DigitalOcean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Schedules the requests made with one API token so that its rate limit budget is never exhausted. The budget is
+ * learned from the {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset} headers of
+ * every response. Requests go through immediately while the budget is healthy, are spaced out evenly over the rest
+ * of the window once it runs low, and are held until the window resets once it is spent.
+ * <p>Requests are admitted in two lanes. {@link Lane#BACKGROUND} requests, such as the pages of a listing, leave a
+ * share of the budget untouched and give way whenever an {@link Lane#INTERACTIVE} request is waiting, so that
+ * lookups and actions are not starved by bulk work.</p>
+ */
+public class RateLimiter {
+    static private final Logger logger = DigitalOcean.getLogger(RateLimiter.class);
+
+    public enum Lane {
+        /**
+         * Requests a caller is waiting on, such as lookups of a single resource or actions.
+         */
+        INTERACTIVE,
+        /**
+         * Bulk requests, such as the pages of a listing.
+         */
+        BACKGROUND
+    }
+
+    /**
+     * The fraction of the budget below which requests are spaced out over the rest of the window.
+     */
+    static private final double PACING_THRESHOLD = 0.1;
+    /**
+     * The fraction of the budget background requests may not use.
+     */
+    static private final double BACKGROUND_RESERVE = 0.05;
+    /**
+     * How long to wait for a budget update when the reset time is unknown. A spent budget without a known reset
+     * time is assumed to reset after this long, so a request gets through to learn the budget again.
+     */
+    static private final long UNKNOWN_RESET_WAIT = 1000L;
+
+    static private final ConcurrentMap<String, RateLimiter> limiters = new ConcurrentHashMap<String, RateLimiter>();
+
+    /**
+     * Provides the scheduler for an API token. Providers using the same token share it, since they share its budget.
+     * @param token the API token
+     * @return the scheduler for the token
+     */
+    static public @Nonnull RateLimiter getInstance(@Nullable String token) {
+        String key = (token == null ? "" : token);
+        RateLimiter limiter = limiters.get(key);
+
+        if( limiter == null ) {
+            limiter = new RateLimiter();
+            RateLimiter existing = limiters.putIfAbsent(key, limiter);
+            if( existing != null ) {
+                limiter = existing;
+            }
+        }
+        return limiter;
+    }
+
+    private int   limit     = -1;
+    private int   remaining = -1;
+    private long  resetAt;
+    private long  lastGrant;
+    private int   inFlight;
+    private final int[] waiting = new int[Lane.values().length];
+    private long  requests;
+    private long  throttled;
+    private long  totalWait;
+    private long  maxWait;
+
+    private RateLimiter() { }
+
+    /**
+     * Waits until the budget allows another request in the given lane and reserves it. Every successful call must
+     * be followed by {@link #release()} once the request has completed or failed.
+     * @param lane the lane of the request
+     * @throws InterruptedException the thread was interrupted while waiting
+     */
+    synchronized void acquire(@Nonnull Lane lane) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        boolean logged = false;
+
+        waiting[lane.ordinal()]++;
+        try {
+            while( true ) {
+                long now = System.currentTimeMillis();
+                long delay = getDelay(lane, now);
+
+                if( delay <= 0 ) {
+                    break;
+                }
+                if( !logged && logger.isDebugEnabled() ) {
+                    logger.debug("Holding " + lane + " request for up to " + delay + "ms, " + remaining + " of " + limit + " requests left");
+                    logged = true;
+                }
+                wait(delay);
+            }
+        }
+        finally {
+            waiting[lane.ordinal()]--;
+        }
+        long now = System.currentTimeMillis();
+        long waited = now - start;
+
+        requests++;
+        if( logged ) {
+            throttled++;
+        }
+        totalWait += waited;
+        maxWait = Math.max(maxWait, waited);
+        if( remaining > 0 ) {
+            remaining--;
+        }
+        inFlight++;
+        lastGrant = now;
+        // waiting requests of the other lane may now be allowed through
+        notifyAll();
+    }
+
+    private long getDelay(@Nonnull Lane lane, long now) {
+        if( resetAt > 0 && now >= resetAt ) {
+            // the window rolled over, the budget is back until the next response says otherwise
+            remaining = limit;
+            resetAt = 0;
+        }
+        if( limit < 0 || remaining < 0 ) {
+            // nothing known about the budget yet
+            return 0;
+        }
+        int reserve = 0;
+
+        if( lane == Lane.BACKGROUND ) {
+            if( waiting[Lane.INTERACTIVE.ordinal()] > 0 ) {
+                return (resetAt > now ? Math.min(resetAt - now, UNKNOWN_RESET_WAIT) : UNKNOWN_RESET_WAIT);
+            }
+            reserve = Math.max(1, (int) (limit * BACKGROUND_RESERVE));
+        }
+        int available = remaining - reserve;
+
+        if( available <= 0 ) {
+            if( resetAt <= now ) {
+                // nobody told us when the window resets, without a guess no request would ever be let through
+                // to find out
+                resetAt = now + UNKNOWN_RESET_WAIT;
+            }
+            return resetAt - now;
+        }
+        if( resetAt > now && remaining < limit * PACING_THRESHOLD ) {
+            long spacing = (resetAt - now) / available;
+            return lastGrant + spacing - now;
+        }
+        return 0;
+    }
+
+    /**
+     * Records the budget reported by a response.
+     * @param response the response to a request admitted by {@link #acquire(Lane)}
+     */
+    synchronized void update(@Nonnull HttpResponse response) {
+        int l = getIntHeader(response, "RateLimit-Limit");
+        int r = getIntHeader(response, "RateLimit-Remaining");
+        long reset = getIntHeader(response, "RateLimit-Reset");
+
+        if( l >= 0 ) {
+            limit = l;
+        }
+        if( r >= 0 ) {
+            // the server has not counted the other requests still in flight
+            remaining = Math.max(0, r - Math.max(0, inFlight - 1));
+        }
+        if( reset > 0 ) {
+            resetAt = reset * 1000L;
+        }
+        if( response.getStatusLine().getStatusCode() == 429 ) {
+            if( resetAt <= System.currentTimeMillis() ) {
+                // e.g. a 429 from a proxy, which does not know about the budget
+                resetAt = System.currentTimeMillis() + UNKNOWN_RESET_WAIT;
+            }
+            logger.warn("DigitalOcean rate limit exceeded, " + limit + " requests allowed until " + new Date(resetAt));
+            remaining = 0;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Marks a request admitted by {@link #acquire(Lane)} as finished.
+     */
+    synchronized void release() {
+        if( inFlight > 0 ) {
+            inFlight--;
+        }
+        notifyAll();
+    }
+
+    static private int getIntHeader(@Nonnull HttpResponse response, @Nonnull String name) {
+        Header header = response.getFirstHeader(name);
+
+        if( header == null || header.getValue() == null ) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(header.getValue().trim());
+        }
+        catch( NumberFormatException e ) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the number of requests per window allowed for the token, -1 if not known yet
+     */
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of requests left in the current window, -1 if not known yet
+     */
+    public synchronized int getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * @return the time (in milliseconds since the epoch) the current window resets, 0 if not known
+     */
+    public synchronized long getResetTime() {
+        return resetAt;
+    }
+
+    /**
+     * @return the number of requests currently waiting for budget
+     */
+    public synchronized int getQueueDepth() {
+        int depth = 0;
+
+        for( int w : waiting ) {
+            depth += w;
+        }
+        return depth;
+    }
+
+    /**
+     * @param lane the lane to report on
+     * @return the number of requests of the lane currently waiting for budget
+     */
+    public synchronized int getQueueDepth(@Nonnull Lane lane) {
+        return waiting[lane.ordinal()];
+    }
+
+    /**
+     * @return the number of requests admitted since startup
+     */
+    public synchronized long getRequestCount() {
+        return requests;
+    }
+
+    /**
+     * @return the number of requests that had to wait for budget since startup
+     */
+    public synchronized long getThrottledCount() {
+        return throttled;
+    }
+
+    /**
+     * @return the total time (in milliseconds) requests spent waiting for budget since startup
+     */
+    public synchronized long getTotalWaitTime() {
+        return totalWait;
+    }
+
+    /**
+     * @return the longest time (in milliseconds) a single request waited for budget since startup
+     */
+    public synchronized long getMaxWaitTime() {
+        return maxWait;
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the parsed responses of the rarely changing catalog endpoints (see {@link DigitalOcean#isCacheable()})
+ * together with their {@code ETag} and {@code Last-Modified} validators. Later requests for the same URL are sent
+ * as conditional requests and a {@code 304 Not Modified} answer is served from the already parsed model, so the
+ * payload is neither downloaded nor parsed again. Responses still fresh according to their
+ * {@code Cache-Control: max-age} are served without contacting DigitalOcean at all, responses marked
+ * {@code no-store} are never kept.
+ * <p>The cached model is handed as is to every caller requesting the same URL, so models of cacheable endpoints
+ * must be treated as read only.</p>
+ */
+public class ResponseCache {
+    /**
+     * Entries beyond this number are discarded wholesale; the catalog endpoints only account for a handful.
+     */
+    static private final int MAX_ENTRIES = 512;
+
+    static private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    static private final AtomicLong hits = new AtomicLong();
+    static private final AtomicLong revalidations = new AtomicLong();
+    static private final AtomicLong misses = new AtomicLong();
+
+    static class Entry {
+        private final DigitalOceanRestModel model;
+        private final String                etag;
+        private final String                lastModified;
+        private final long                  expires;
+
+        private Entry(@Nonnull DigitalOceanRestModel model, @Nullable String etag, @Nullable String lastModified, long expires) {
+            this.model = model;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+
+        @Nonnull DigitalOceanRestModel getModel() {
+            return model;
+        }
+
+        boolean isFresh() {
+            return (expires > System.currentTimeMillis());
+        }
+
+        /**
+         * Turns the request into a conditional one based on the validators of this entry.
+         * @param request the request for the cached URL
+         */
+        void addValidators(@Nonnull HttpRequestBase request) {
+            if( etag != null ) {
+                request.setHeader("If-None-Match", etag);
+            }
+            if( lastModified != null ) {
+                request.setHeader("If-Modified-Since", lastModified);
+            }
+        }
+    }
+
+    static private @Nonnull String getKey(@Nullable String token, @Nonnull String url) {
+        return token + " " + url;
+    }
+
+    /**
+     * @param token the token the request is made with
+     * @param url the URL of the request
+     * @return the entry for the URL or null if it was never cached
+     */
+    static @Nullable Entry get(@Nullable String token, @Nonnull String url) {
+        return entries.get(getKey(token, url));
+    }
+
+    /**
+     * Stores a freshly parsed response, provided it carries a validator or may be reused for a while and is not
+     * marked {@code no-store}.
+     * @param token the token the request was made with
+     * @param url the URL of the request
+     * @param response the response the model was parsed from
+     * @param model the parsed model
+     */
+    static void put(@Nullable String token, @Nonnull String url, @Nonnull HttpResponse response, @Nonnull DigitalOceanRestModel model) {
+        misses.incrementAndGet();
+        String etag = getHeader(response, "ETag");
+        String lastModified = getHeader(response, "Last-Modified");
+        long maxAge = getMaxAge(response);
+
+        if( maxAge < 0 || (etag == null && lastModified == null && maxAge == 0) ) {
+            // whatever was kept for the URL before is outdated now
+            entries.remove(getKey(token, url));
+            return;
+        }
+        if( entries.size() >= MAX_ENTRIES ) {
+            entries.clear();
+        }
+        entries.put(getKey(token, url), new Entry(model, etag, lastModified, System.currentTimeMillis() + maxAge * 1000L));
+    }
+
+    /**
+     * Records that a cached entry was served without a request.
+     */
+    static void hit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Records that a cached entry was confirmed as current by a {@code 304 Not Modified} response.
+     */
+    static void revalidated() {
+        revalidations.incrementAndGet();
+    }
+
+    static private @Nullable String getHeader(@Nonnull HttpResponse response, @Nonnull String name) {
+        Header header = response.getFirstHeader(name);
+        return (header == null ? null : header.getValue());
+    }
+
+    /**
+     * Reads every {@code Cache-Control} directive of the response, in any order.
+     * @return the seconds the response may be served without revalidation, 0 if it must always be revalidated or
+     * -1 if it must not be stored at all
+     */
+    static private long getMaxAge(@Nonnull HttpResponse response) {
+        long maxAge = 0L;
+        boolean noCache = false;
+
+        for( Header header : response.getHeaders("Cache-Control") ) {
+            for( HeaderElement element : header.getElements() ) {
+                if( "no-store".equalsIgnoreCase(element.getName()) ) {
+                    return -1L;
+                }
+                if( "no-cache".equalsIgnoreCase(element.getName()) ) {
+                    noCache = true;
+                }
+                else if( "max-age".equalsIgnoreCase(element.getName()) && element.getValue() != null ) {
+                    try {
+                        maxAge = Math.max(0L, Long.parseLong(element.getValue().trim()));
+                    }
+                    catch( NumberFormatException ignore ) {
+                        noCache = true;
+                    }
+                }
+            }
+        }
+        return (noCache ? 0L : maxAge);
+    }
+
+    /**
+     * Drops every cached response.
+     */
+    static public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of responses served from the cache without contacting DigitalOcean
+     */
+    static public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of responses served from the cache after DigitalOcean confirmed them as current
+     */
+    static public long getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return the number of catalog responses that had to be downloaded and parsed
+     */
+    static public long getMissCount() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.apache.http.HttpResponse;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * Decides whether a failed request to DigitalOcean is tried again, and when. A request has failed when it could not
+ * be sent or completed (an {@link IOException}) or when DigitalOcean answered it with an error status; the policy
+ * tells transient failures, such as throttling, server errors and timeouts, from permanent ones.
+ * <p>Implementations are shared by all threads using a provider and must be thread safe.</p>
+ */
+public interface RetryPolicy {
+    /**
+     * Determines how long to wait before trying a request again.
+     * @param method the method of the request
+     * @param idempotent true if sending the request more than once has the same effect as sending it once
+     * @param attempt the number of attempts made so far, starting at 1
+     * @param response the response to the last attempt, null if it failed with an error
+     * @param error the error the last attempt failed with, null if a response was received
+     * @return the delay in milliseconds before the next attempt, 0 to try again immediately or a negative value if
+     * the request should not be tried again
+     */
+    long getRetryDelay(@Nonnull RESTMethod method, boolean idempotent, int attempt, @Nullable HttpResponse response, @Nullable IOException error);
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.compute;
+
+import com.google.gson.stream.JsonReader;
+import org.dasein.cloud.digitalocean.models.Action;
+import org.dasein.cloud.digitalocean.models.Actions;
+import org.dasein.cloud.digitalocean.models.Droplet;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOcean;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DropletInventoryTest {
+    static private final long STALENESS = 60000L;
+    static private final long RESYNC    = 900000L;
+
+    /**
+     * An account whose actions and droplets are set by the test.
+     */
+    static private final class StubFeed implements DropletInventory.Feed {
+        private final LinkedList<Action>    actions  = new LinkedList<Action>();
+        private final Map<String, Droplet>  droplets = new LinkedHashMap<String, Droplet>();
+        private final List<String>          fetched  = new ArrayList<String>();
+        private int pageSize = 3;
+        private int pagesRead;
+        private int loads;
+
+        private void act(long id, @Nonnull String status, @Nonnull String dropletId) {
+            Action action = new Action();
+
+            action.setId(String.valueOf(id));
+            action.setStatus(status);
+            action.setResourceType("droplet");
+            action.setResourceId(dropletId);
+            actions.addFirst(action);
+        }
+
+        private void complete(long id) {
+            for( Action action : actions ) {
+                if( action.getId().equals(String.valueOf(id)) ) {
+                    action.setStatus("completed");
+                }
+            }
+        }
+
+        @Override
+        public @Nullable Action newest() {
+            return actions.peekFirst();
+        }
+
+        @Override
+        public @Nonnull Actions actions(int page) {
+            Actions result = new Actions();
+
+            pagesRead++;
+            for( int i = (page - 1) * pageSize; i < page * pageSize && i < actions.size(); i++ ) {
+                result.addAction(actions.get(i));
+            }
+            result.setTotal(actions.size());
+            return result;
+        }
+
+        @Override
+        public @Nonnull Iterable<Droplet> droplets() {
+            loads++;
+            return new ArrayList<Droplet>(droplets.values());
+        }
+
+        @Override
+        public @Nullable Droplet droplet(@Nonnull String dropletId) {
+            fetched.add(dropletId);
+            return droplets.get(dropletId);
+        }
+    }
+
+    static private Droplet droplet(String id, String name) throws Exception {
+        String json = "{\"droplet\":{\"id\":" + id + ",\"name\":\"" + name + "\",\"status\":\"active\"}}";
+
+        return (Droplet) DigitalOcean.DROPLET.fromJson(new JsonReader(new StringReader(json)));
+    }
+
+    private StubFeed         feed;
+    private DropletInventory inventory;
+    private long             now;
+
+    private void put(String id, String name) throws Exception {
+        feed.droplets.put(id, droplet(id, name));
+    }
+
+    private List<String> names() throws Exception {
+        List<String> names = new ArrayList<String>();
+
+        for( Droplet droplet : inventory.list() ) {
+            names.add(droplet.getName());
+        }
+        return names;
+    }
+
+    private void check() throws Exception {
+        feed.fetched.clear();
+        feed.pagesRead = 0;
+        now += 1000L;
+        inventory.check(now);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        feed = new StubFeed();
+        feed.act(9, "completed", "1");
+        feed.act(10, "completed", "2");
+        put("1", "web-1");
+        put("2", "web-2");
+        now = System.currentTimeMillis();
+        inventory = new DropletInventory(null, STALENESS, RESYNC, feed);
+        inventory.check(now);
+    }
+
+    @Test
+    public void loadsEveryDropletOnce() throws Exception {
+        assertEquals(1, feed.loads);
+        assertEquals(Arrays.asList("web-1", "web-2"), names());
+
+        check();
+        assertEquals(1, feed.loads);
+        assertEquals(1, feed.pagesRead);
+        assertTrue(feed.fetched.isEmpty());
+    }
+
+    @Test
+    public void fetchesDropletsWithNewActions() throws Exception {
+        put("2", "db-2");
+        feed.act(11, "completed", "2");
+        check();
+
+        assertEquals(Arrays.asList("2"), feed.fetched);
+        assertEquals(Arrays.asList("web-1", "db-2"), names());
+        assertEquals(1, feed.loads);
+    }
+
+    @Test
+    public void removesDropletsNoLongerFound() throws Exception {
+        feed.droplets.remove("2");
+        feed.act(11, "completed", "2");
+        check();
+
+        assertEquals(Arrays.asList("web-1"), names());
+        assertEquals(1, feed.loads);
+    }
+
+    @Test
+    public void rereadsActionsUntilTheySettle() throws Exception {
+        feed.act(11, "in-progress", "1");
+        feed.act(12, "completed", "2");
+        check();
+        assertEquals(new HashSet<String>(Arrays.asList("1", "2")), new HashSet<String>(feed.fetched));
+
+        // still in progress, both are read again
+        check();
+        assertEquals(new HashSet<String>(Arrays.asList("1", "2")), new HashSet<String>(feed.fetched));
+
+        put("1", "web-1-resized");
+        feed.complete(11);
+        check();
+        assertEquals(new HashSet<String>(Arrays.asList("1", "2")), new HashSet<String>(feed.fetched));
+        assertEquals(Arrays.asList("web-1-resized", "web-2"), names());
+
+        check();
+        assertTrue(feed.fetched.isEmpty());
+        assertEquals(1, feed.loads);
+    }
+
+    @Test
+    public void reloadsWhenFeedCannotBeFollowedBack() throws Exception {
+        put("3", "web-3");
+        for( long id = 11; id <= 11 + DropletInventory.MAX_PAGES * feed.pageSize; id++ ) {
+            feed.act(id, "completed", "1");
+        }
+        check();
+
+        assertEquals(DropletInventory.MAX_PAGES, feed.pagesRead);
+        assertTrue(feed.fetched.isEmpty());
+        assertEquals(2, feed.loads);
+        assertEquals(Arrays.asList("web-1", "web-2", "web-3"), names());
+
+        // the reload picked up the feed position
+        check();
+        assertEquals(1, feed.pagesRead);
+        assertEquals(2, feed.loads);
+    }
+
+    @Test
+    public void followsFeedUpToMaxPages() throws Exception {
+        // the last action seen ends up on the last page walked
+        for( long id = 11; id < 10 + DropletInventory.MAX_PAGES * feed.pageSize; id++ ) {
+            feed.act(id, "completed", "2");
+        }
+        check();
+
+        assertEquals(DropletInventory.MAX_PAGES, feed.pagesRead);
+        assertEquals(1, feed.loads);
+    }
+
+    @Test
+    public void fetchesTouchedDropletsAgain() throws Exception {
+        // e.g. terminated by this provider, before the action shows up in the feed
+        feed.droplets.remove("2");
+        inventory.touch("2");
+        check();
+
+        assertEquals(Arrays.asList("2"), feed.fetched);
+        assertEquals(Arrays.asList("web-1"), names());
+        assertEquals(1, feed.loads);
+    }
+
+    @Test
+    public void reloadsOnceInvalidated() throws Exception {
+        put("3", "web-3");
+        inventory.invalidate();
+        check();
+
+        assertEquals(2, feed.loads);
+        assertEquals(Arrays.asList("web-1", "web-2", "web-3"), names());
+    }
+
+    @Test
+    public void reloadsAfterResyncInterval() throws Exception {
+        now += RESYNC;
+        check();
+
+        assertEquals(2, feed.loads);
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.compute;
+
+import com.google.gson.stream.JsonReader;
+import org.dasein.cloud.ResourceStatus;
+import org.dasein.cloud.compute.VmState;
+import org.dasein.cloud.digitalocean.models.Droplet;
+import org.dasein.cloud.digitalocean.models.Droplets;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOcean;
+import org.dasein.cloud.digitalocean.models.rest.Projection;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DropletStatusSweepTest {
+    private DropletStatusSweep sweep;
+
+    /**
+     * @param droplets pairs of droplet ids and DigitalOcean statuses
+     * @return the droplets as read by a status sweep
+     */
+    static private List<Droplet> droplets(String... droplets) throws Exception {
+        StringBuilder json = new StringBuilder("{\"droplets\":[");
+
+        for( int i = 0; i < droplets.length; i += 2 ) {
+            if( i > 0 ) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(droplets[i]).append("\",\"status\":\"").append(droplets[i + 1]).append("\"}");
+        }
+        json.append("],\"meta\":{\"total\":").append(droplets.length / 2).append("}}");
+        return ((Droplets) DigitalOcean.DROPLETS.fromJson(new JsonReader(new StringReader(json.toString())), Projection.STATUS)).getItems();
+    }
+
+    static private Map<String, Object> toMap(List<ResourceStatus> changes) {
+        Map<String, Object> map = new HashMap<String, Object>();
+
+        for( ResourceStatus status : changes ) {
+            map.put(status.getProviderResourceId(), status.getResourceStatus());
+        }
+        assertEquals("a droplet was reported twice", changes.size(), map.size());
+        return map;
+    }
+
+    @Before
+    public void setUp() {
+        sweep = new DropletStatusSweep(null);
+    }
+
+    @Test
+    public void firstSweepReportsEveryDroplet() throws Exception {
+        Map<String, Object> changes = toMap(sweep.update(droplets("1", "active", "2", "off", "3", "new")));
+
+        assertEquals(3, changes.size());
+        assertEquals(VmState.RUNNING, changes.get("1"));
+        assertEquals(VmState.STOPPED, changes.get("2"));
+        assertEquals(VmState.PENDING, changes.get("3"));
+        assertEquals(3, sweep.size());
+    }
+
+    @Test
+    public void reportsOnlyChangedAndNewDroplets() throws Exception {
+        sweep.update(droplets("1", "active", "2", "new"));
+        Map<String, Object> changes = toMap(sweep.update(droplets("1", "active", "2", "active", "3", "new")));
+
+        assertEquals(2, changes.size());
+        assertEquals(VmState.RUNNING, changes.get("2"));
+        assertEquals(VmState.PENDING, changes.get("3"));
+        assertTrue(sweep.update(droplets("1", "active", "2", "active", "3", "new")).isEmpty());
+    }
+
+    @Test
+    public void carriesDropletMissedOnceOver() throws Exception {
+        sweep.update(droplets("1", "active", "2", "active"));
+
+        assertTrue(sweep.update(droplets("1", "active")).isEmpty());
+        assertEquals(2, sweep.size());
+        // it was only pushed out of sight, nothing changed
+        assertTrue(sweep.update(droplets("1", "active", "2", "active")).isEmpty());
+        assertTrue(sweep.update(droplets("1", "active")).isEmpty());
+    }
+
+    @Test
+    public void reportsDropletMissedTwiceAsTerminated() throws Exception {
+        sweep.update(droplets("1", "active", "2", "active"));
+        sweep.update(droplets("1", "active"));
+        Map<String, Object> changes = toMap(sweep.update(droplets("1", "active")));
+
+        assertEquals(1, changes.size());
+        assertEquals(VmState.TERMINATED, changes.get("2"));
+        assertEquals(1, sweep.size());
+        assertTrue(sweep.update(droplets("1", "active")).isEmpty());
+    }
+
+    @Test
+    public void ignoresUnexpectedIds() throws Exception {
+        Map<String, Object> changes = toMap(sweep.update(droplets("0", "active", "web", "active", "4", "off")));
+
+        assertEquals(1, changes.size());
+        assertEquals(VmState.STOPPED, changes.get("4"));
+    }
+
+    @Test
+    public void resetReportsEveryDropletAgain() throws Exception {
+        sweep.update(droplets("1", "active", "2", "off"));
+        sweep.reset();
+
+        assertEquals(2, sweep.update(droplets("1", "active", "2", "off")).size());
+    }
+
+    @Test
+    public void tableGrowsKeepingEntries() {
+        DropletStatusSweep.StatusTable table = new DropletStatusSweep.StatusTable(2);
+
+        for( long id = 1; id <= 1000; id++ ) {
+            table.put(id, (byte) (id % 7), (byte) (id % 2));
+        }
+        assertEquals(1000, table.size);
+        assertTrue(table.ids.length >= 2000);
+        assertEquals(0, table.ids.length & (table.ids.length - 1));
+        for( long id = 1; id <= 1000; id++ ) {
+            int i = table.indexOf(id);
+
+            assertTrue(i >= 0);
+            assertEquals(id % 7, table.states[i]);
+            assertEquals(id % 2, table.misses[i]);
+        }
+        assertEquals(-1, table.indexOf(1001));
+    }
+
+    @Test
+    public void tableProbesPastCollisions() {
+        DropletStatusSweep.StatusTable table = new DropletStatusSweep.StatusTable(64);
+        long[] colliding = new long[3];
+        int found = 0;
+
+        for( long id = 1; found < colliding.length; id++ ) {
+            if( table.slot(id) == table.slot(1) ) {
+                colliding[found++] = id;
+            }
+        }
+        table.put(colliding[0], (byte) 1, (byte) 0);
+        table.put(colliding[1], (byte) 2, (byte) 0);
+        table.put(colliding[0], (byte) 3, (byte) 1);
+
+        assertEquals(2, table.size);
+        int first = table.indexOf(colliding[0]);
+        int second = table.indexOf(colliding[1]);
+        assertEquals(table.slot(colliding[0]), first);
+        assertEquals((first + 1) & (table.ids.length - 1), second);
+        assertEquals(3, table.states[first]);
+        assertEquals(1, table.misses[first]);
+        assertEquals(2, table.states[second]);
+        // the probe stops at the first free slot
+        assertEquals(-1, table.indexOf(colliding[2]));
+    }
+
+    @Test
+    public void tableTreatsZeroAsEmpty() {
+        DropletStatusSweep.StatusTable table = new DropletStatusSweep.StatusTable(16);
+
+        assertEquals(-1, table.indexOf(1));
+        table.put(1, (byte) 1, (byte) 0);
+        table.put(2, (byte) 1, (byte) 0);
+        table.clear();
+
+        assertEquals(0, table.size);
+        assertEquals(-1, table.indexOf(1));
+        assertEquals(-1, table.indexOf(2));
+        table.put(2, (byte) 4, (byte) 0);
+        assertEquals(1, table.size);
+        assertEquals(4, table.states[table.indexOf(2)]);
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import org.dasein.cloud.compute.VmState;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOcean;
+import org.dasein.cloud.digitalocean.models.rest.DigitalOceanRestModel;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModelAdaptersTest {
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ModelAdapters()).create();
+
+    @Test
+    public void readsSizeNumbers() {
+        Size size = gson.fromJson("{\"slug\":\"2gb\",\"memory\":2048,\"vcpus\":2,\"disk\":40,\"transfer\":3.0,\"price_monthly\":20.0,\"price_hourly\":0.02976}", Size.class);
+
+        assertEquals("2gb", size.getSlug());
+        assertEquals(Integer.valueOf(2048), size.getMemory());
+        assertEquals(Integer.valueOf(2), size.getCpus());
+        assertEquals(Integer.valueOf(40), size.getDisk());
+        assertEquals(Double.valueOf(3.0), size.getTransfer());
+        assertEquals(Double.valueOf(20.0), size.getMonthlyPrice());
+        assertEquals(Double.valueOf(0.02976), size.getHourlyPrice());
+    }
+
+    @Test
+    public void keepsMissingSizeNumbersUnset() {
+        Size size = gson.fromJson("{\"slug\":\"2gb\",\"memory\":null}", Size.class);
+
+        assertNull(size.getMemory());
+        assertNull(size.getCpus());
+        assertNull(size.getDisk());
+        assertNull(size.getTransfer());
+        assertNull(size.getMonthlyPrice());
+        assertNull(size.getHourlyPrice());
+    }
+
+    @Test
+    public void acceptsUnsetSizeNumbers() {
+        Size size = new Size();
+
+        size.setMemory(null);
+        size.setCpus(null);
+        size.setDisk(null);
+        size.setTransfer(null);
+        size.setHourlyPrice(null);
+        size.setMonthlyPrice(null);
+        assertEquals(size, gson.fromJson(gson.toJson(size), Size.class));
+    }
+
+    static private DigitalOceanRestModel fixture(DigitalOcean model, String name) throws Exception {
+        Reader reader = new InputStreamReader(ModelAdaptersTest.class.getResourceAsStream("/" + name), "UTF-8");
+        try {
+            return model.fromJson(new JsonReader(reader));
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    private VmState readStatus(String status) {
+        return gson.fromJson("{\"id\":1,\"status\":" + (status == null ? "null" : "\"" + status + "\"") + "}", Droplet.class).getStatus();
+    }
+
+    @Test
+    public void mapsDropletStatusToVmState() {
+        assertEquals(VmState.RUNNING, readStatus("active"));
+        assertEquals(VmState.PENDING, readStatus("new"));
+        assertEquals(VmState.STOPPED, readStatus("off"));
+        assertEquals(VmState.TERMINATED, readStatus("archive"));
+        assertNull(readStatus("resizing"));
+        assertNull(readStatus(null));
+    }
+
+    @Test
+    public void writesDropletStatusBack() {
+        for( String status : new String[] { "active", "new", "off", "archive" } ) {
+            Droplet droplet = gson.fromJson("{\"id\":1,\"status\":\"" + status + "\"}", Droplet.class);
+
+            assertEquals(droplet.getStatus(), gson.fromJson(gson.toJson(droplet), Droplet.class).getStatus());
+        }
+    }
+
+    @Test
+    public void skipsUnknownAndNestedFields() {
+        Droplet droplet = gson.fromJson("{\"locked\":false,\"kernel\":{\"id\":2233,\"name\":\"vmlinuz\",\"extra\":{\"a\":[1,{\"b\":null},[]]}},"
+                + "\"id\":3164444,\"backup_ids\":[7938002],\"next_backup_window\":null,\"name\":\"web-1\","
+                + "\"image\":{\"id\":6918990,\"name\":\"14.04 x64\",\"min_disk_size\":20,\"tags\":{\"x\":1},\"distribution\":\"Ubuntu\"},"
+                + "\"status\":\"off\",\"features\":[\"backups\"],\"tags\":[\"web\"],\"volume_ids\":[]}", Droplet.class);
+
+        assertEquals("3164444", droplet.getId());
+        assertEquals("web-1", droplet.getName());
+        assertEquals(VmState.STOPPED, droplet.getStatus());
+        assertEquals("6918990", droplet.getImage().getId());
+        assertEquals("Ubuntu", droplet.getImage().getDistribution());
+        assertArrayEquals(new String[] { "web" }, droplet.getTags());
+    }
+
+    @Test
+    public void readsJsonNulls() {
+        assertNull(gson.fromJson("null", Droplet.class));
+
+        Droplet droplet = gson.fromJson("{\"id\":1,\"name\":null,\"image\":null,\"size\":null,\"region\":null,\"networks\":null,"
+                + "\"snapshot_ids\":null,\"tags\":null,\"status\":null}", Droplet.class);
+        assertEquals("1", droplet.getId());
+        assertNull(droplet.getName());
+        assertNull(droplet.getImage());
+        assertNull(droplet.getSize());
+        assertNull(droplet.getRegion());
+        assertNull(droplet.getNetworks());
+        assertNull(droplet.getSnapshotIds());
+        assertNull(droplet.getTags());
+
+        Networks networks = gson.fromJson("{\"v4\":null,\"v6\":[null]}", Networks.class);
+        assertNull(networks.getV4());
+        assertEquals(1, networks.getV6().size());
+        assertNull(networks.getV6().get(0));
+
+        Region region = gson.fromJson("{\"slug\":\"nyc3\",\"available\":null,\"sizes\":null}", Region.class);
+        assertEquals("nyc3", region.getSlug());
+        assertNull(region.getAvailable());
+        assertNull(region.sizes);
+    }
+
+    @Test
+    public void readsCapturedActions() throws Exception {
+        Actions actions = (Actions) fixture(DigitalOcean.ACTIONS, "actions.json");
+        List<Action> list = actions.getActions();
+
+        assertEquals(475, actions.getTotal());
+        assertEquals(3, list.size());
+
+        Action running = list.get(0);
+        assertEquals("36805187", running.getId());
+        assertEquals(Action.Status.IN_PROGRESS, running.getState());
+        assertEquals("in-progress", running.getStatus());
+        assertFalse(running.isComplete());
+        assertEquals("power_off", running.getType());
+        assertEquals("2014-11-14T16:31:10Z", running.getStartedAt());
+        assertNull(running.getCompletedAt());
+        assertEquals("3164444", running.getResourceId());
+        assertEquals("droplet", running.getResourceType());
+        assertEquals("nyc3", running.getRegion().getSlug());
+        assertEquals("New York 3", running.getRegion().getName());
+
+        Action errored = list.get(1);
+        assertEquals(Action.Status.ERRORED, errored.getState());
+        assertTrue(errored.isComplete());
+        assertTrue(errored.isError());
+        assertNull(errored.getRegion());
+
+        Action completed = list.get(2);
+        assertEquals(Action.Status.COMPLETED, completed.getState());
+        assertTrue(completed.isComplete());
+        assertFalse(completed.isError());
+    }
+
+    @Test
+    public void keepsUnknownActionStatusPending() {
+        Action action = gson.fromJson("{\"id\":1,\"status\":\"paused\"}", Action.class);
+
+        assertNull(action.getState());
+        assertNull(action.getStatus());
+        assertFalse(action.isComplete());
+        assertFalse(action.isError());
+    }
+
+    @Test
+    public void writesActionsBack() throws Exception {
+        for( Action action : ((Actions) fixture(DigitalOcean.ACTIONS, "actions.json")).getActions() ) {
+            Action copy = gson.fromJson(gson.toJson(action), Action.class);
+
+            assertEquals(action.getId(), copy.getId());
+            assertEquals(action.getState(), copy.getState());
+            assertEquals(action.getCompletedAt(), copy.getCompletedAt());
+            assertEquals(action.getResourceId(), copy.getResourceId());
+        }
+    }
+
+    @Test
+    public void readsCapturedKeys() throws Exception {
+        List<Key> keys = ((Keys) fixture(DigitalOcean.KEYS, "keys.json")).getKeys();
+
+        assertEquals(1, keys.size());
+        Key key = keys.get(0);
+        assertEquals("512189", key.getId());
+        assertEquals("My SSH Public Key", key.getName());
+        assertEquals("3b:16:bf:e4:8b:00:8b:b8:59:8c:a9:d3:f0:19:45:fa", key.getFingerprint());
+        assertTrue(key.getPublicKey().startsWith("ssh-rsa AEXAMPLE"));
+    }
+
+    @Test
+    public void readsCapturedRegions() throws Exception {
+        List<Region> regions = ((Regions) fixture(DigitalOcean.REGIONS, "regions.json")).getRegions();
+
+        assertEquals(2, regions.size());
+        assertEquals("nyc1", regions.get(0).getSlug());
+        assertEquals(Boolean.FALSE, regions.get(0).getAvailable());
+        assertEquals(0, regions.get(0).sizes.length);
+
+        Region ams3 = regions.get(1);
+        assertEquals("Amsterdam 3", ams3.getName());
+        assertEquals(Boolean.TRUE, ams3.getAvailable());
+        assertEquals(9, ams3.sizes.length);
+        assertEquals(Arrays.asList("virtio", "private_networking", "backups", "ipv6", "metadata"), Arrays.asList(ams3.features));
+    }
+
+    @Test
+    public void readsCapturedNetworks() throws Exception {
+        Droplets droplets = (Droplets) fixture(DigitalOcean.DROPLETS, "droplets.json");
+        Networks networks = droplets.getItems().get(0).getNetworks();
+
+        assertNotNull(networks);
+        assertEquals(1, networks.getV4().size());
+        assertTrue(networks.getV6().isEmpty());
+        Network v4 = networks.getV4().get(0);
+        assertEquals("104.236.32.182", v4.getIpAddress());
+        assertEquals("255.255.192.0", v4.getNetmask());
+        assertEquals("104.236.0.1", v4.getGateway());
+        assertEquals("public", v4.getType());
+
+        Network v6 = gson.fromJson("{\"ip_address\":\"2604:A880:0800:0010:0000:0000:02DD:4001\",\"netmask\":64,"
+                + "\"gateway\":\"2604:A880:0800:0010:0000:0000:0000:0001\",\"type\":\"public\"}", Network.class);
+        assertEquals("2604:A880:0800:0010:0000:0000:02DD:4001", v6.getIpAddress());
+        assertEquals("64", v6.getNetmask());
+    }
+}
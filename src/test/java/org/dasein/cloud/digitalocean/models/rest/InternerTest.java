@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.digitalocean.models.Droplet;
+import org.dasein.cloud.digitalocean.models.Droplets;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InternerTest {
+    static private final int PAGES = 250;
+
+    static private Reader fixture() throws IOException {
+        return new InputStreamReader(InternerTest.class.getResourceAsStream("/droplets.json"), "UTF-8");
+    }
+
+    static private List<Droplet> parse() throws IOException, CloudException {
+        Reader reader = fixture();
+        try {
+            return ((Droplets) DigitalOcean.DROPLETS.fromJson(new JsonReader(reader))).getItems();
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    static private List<Droplet> parseWithoutInterning() throws IOException {
+        Reader reader = fixture();
+        try {
+            List<Droplet> droplets = new ArrayList<Droplet>();
+            Gson gson = DigitalOcean.gson;
+
+            for( JsonElement element : new JsonParser().parse(reader).getAsJsonObject().getAsJsonArray("droplets") ) {
+                droplets.add(gson.fromJson(element, Droplet.class));
+            }
+            return droplets;
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @return the number of distinct instances making up what the droplets have in common
+     */
+    static private int countInstances(List<Droplet> droplets) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+        for( Droplet d : droplets ) {
+            seen.add(d.getRegion());
+            seen.add(d.getRegion().getName());
+            seen.add(d.getSize());
+            seen.add(d.getSizeSlug());
+            seen.add(d.getImage());
+            seen.add(d.getImage().getName());
+            seen.add(d.getImage().getDistribution());
+        }
+        return seen.size();
+    }
+
+    @Test
+    public void sharesEqualValuesAcrossDroplets() throws Exception {
+        List<Droplet> droplets = parse();
+
+        assertEquals(4, droplets.size());
+        assertSame(droplets.get(0).getRegion(), droplets.get(1).getRegion());
+        assertSame(droplets.get(0).getRegion(), droplets.get(2).getRegion());
+        assertNotSame(droplets.get(0).getRegion(), droplets.get(3).getRegion());
+        assertSame(droplets.get(0).getSize(), droplets.get(1).getSize());
+        assertSame(droplets.get(0).getSize(), droplets.get(3).getSize());
+        assertNotSame(droplets.get(0).getSize(), droplets.get(2).getSize());
+        assertSame(droplets.get(0).getImage(), droplets.get(2).getImage());
+        assertSame(droplets.get(0).getSizeSlug(), droplets.get(1).getSizeSlug());
+    }
+
+    @Test
+    public void footprintDoesNotGrowWithTheListing() throws Exception {
+        List<Droplet> shared = new ArrayList<Droplet>();
+        List<Droplet> unshared = new ArrayList<Droplet>();
+
+        for( int i = 0; i < PAGES; i++ ) {
+            shared.addAll(parse());
+            unshared.addAll(parseWithoutInterning());
+        }
+        // 2 regions with their names, 2 sizes with their slugs, 2 images with their names and distributions
+        assertEquals(14, countInstances(shared));
+        assertEquals(PAGES * 4 * 7, countInstances(unshared));
+    }
+
+    @Test
+    public void sharedInstancesAreReadOnly() throws Exception {
+        Droplet droplet = parse().get(0);
+
+        assertTrue(droplet.getSize().isShared());
+        assertTrue(droplet.getImage().isShared());
+        try {
+            droplet.getSize().setMemory(1024);
+            fail("A shared size was changed");
+        }
+        catch( UnsupportedOperationException expected ) {
+            // expected
+        }
+        try {
+            droplet.getImage().setName("changed");
+            fail("A shared image was changed");
+        }
+        catch( UnsupportedOperationException expected ) {
+            // expected
+        }
+        droplet.getImage().getRegions()[0] = "changed";
+        assertEquals("nyc1", parse().get(1).getImage().getRegions()[0]);
+    }
+
+    @Test
+    public void unsharedInstancesCanBeChanged() throws Exception {
+        Droplet droplet = parseWithoutInterning().get(0);
+
+        assertFalse(droplet.getSize().isShared());
+        droplet.getSize().setMemory(1024);
+        assertEquals(Integer.valueOf(1024), droplet.getSize().getMemory());
+    }
+}
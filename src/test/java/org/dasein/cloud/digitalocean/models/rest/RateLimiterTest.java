@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    static private HttpResponse response(int status, String... headers) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+
+        for( int i = 0; i < headers.length; i += 2 ) {
+            response.addHeader(headers[i], headers[i + 1]);
+        }
+        return response;
+    }
+
+    @Test(timeout = 10000L)
+    public void admitsAgainAfterThrottlingWithoutResetTime() throws InterruptedException {
+        RateLimiter limiter = RateLimiter.getInstance("test-no-reset-" + System.nanoTime());
+
+        limiter.acquire(RateLimiter.Lane.INTERACTIVE);
+        limiter.update(response(200, "RateLimit-Limit", "5000", "RateLimit-Remaining", "100"));
+        limiter.release();
+        limiter.acquire(RateLimiter.Lane.INTERACTIVE);
+        // a proxy throttling us knows nothing about the window
+        limiter.update(response(429));
+        limiter.release();
+
+        long started = System.currentTimeMillis();
+        limiter.acquire(RateLimiter.Lane.BACKGROUND);
+        limiter.release();
+        assertTrue(System.currentTimeMillis() - started < 5000L);
+    }
+
+    @Test(timeout = 10000L)
+    public void admitsBackgroundRequestsOnceReserveIsReachedWithoutResetTime() throws InterruptedException {
+        RateLimiter limiter = RateLimiter.getInstance("test-reserve-" + System.nanoTime());
+
+        limiter.acquire(RateLimiter.Lane.INTERACTIVE);
+        limiter.update(response(200, "RateLimit-Limit", "100", "RateLimit-Remaining", "1"));
+        limiter.release();
+        limiter.acquire(RateLimiter.Lane.BACKGROUND);
+        limiter.release();
+    }
+}
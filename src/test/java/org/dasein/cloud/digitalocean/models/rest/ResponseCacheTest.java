@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2012-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.digitalocean.models.rest;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.dasein.cloud.digitalocean.models.Regions;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseCacheTest {
+    static private final String TOKEN = "test";
+    static private final String URL   = "https://api.digitalocean.com/v2/regions";
+
+    static private HttpResponse response(String... headers) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+
+        for( int i = 0; i < headers.length; i += 2 ) {
+            response.addHeader(headers[i], headers[i + 1]);
+        }
+        return response;
+    }
+
+    @Before
+    public void clear() {
+        ResponseCache.clear();
+    }
+
+    @Test
+    public void keepsResponsesWithValidators() {
+        ResponseCache.put(TOKEN, URL, response("ETag", "\"abc\""), new Regions());
+
+        ResponseCache.Entry entry = ResponseCache.get(TOKEN, URL);
+        assertNotNull(entry);
+        assertFalse(entry.isFresh());
+    }
+
+    @Test
+    public void servesResponsesWithinMaxAge() {
+        ResponseCache.put(TOKEN, URL, response("Cache-Control", "public, max-age=60"), new Regions());
+
+        assertTrue(ResponseCache.get(TOKEN, URL).isFresh());
+    }
+
+    @Test
+    public void neverStoresNoStoreResponses() {
+        ResponseCache.put(TOKEN, URL, response("ETag", "\"abc\"", "Cache-Control", "max-age=60, no-store"), new Regions());
+        assertNull(ResponseCache.get(TOKEN, URL));
+
+        ResponseCache.put(TOKEN, URL, response("Last-Modified", "Mon, 06 Jul 2015 10:00:00 GMT", "Cache-Control", "max-age=60", "Cache-Control", "no-store"), new Regions());
+        assertNull(ResponseCache.get(TOKEN, URL));
+    }
+
+    @Test
+    public void dropsEntriesReplacedByNoStoreResponses() {
+        ResponseCache.put(TOKEN, URL, response("ETag", "\"abc\""), new Regions());
+        ResponseCache.put(TOKEN, URL, response("ETag", "\"def\"", "Cache-Control", "no-store"), new Regions());
+
+        assertNull(ResponseCache.get(TOKEN, URL));
+    }
+
+    @Test
+    public void revalidatesNoCacheResponses() {
+        ResponseCache.put(TOKEN, URL, response("ETag", "\"abc\"", "Cache-Control", "max-age=60, no-cache"), new Regions());
+
+        assertFalse(ResponseCache.get(TOKEN, URL).isFresh());
+    }
+}